@@ -0,0 +1,59 @@
+package org.example.benchmark;
+
+import org.example.dto.OrderSummaryDto;
+import org.example.service.DailyReport;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Body of the daily completed-order mail: DailyReport (one StringBuilder) vs the old String += per order,
+ * which copies the whole body for every order. Run with -prof gc to see the bytes allocated per report.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DailyReportBenchmark {
+
+    @Param({"1000", "5000"})
+    int orders;
+
+    List<OrderSummaryDto> orderList;
+
+    @Setup
+    public void setup() {
+        orderList = new ArrayList<>();
+        for (int i = 0; i < orders; i++) {
+            orderList.add(new OrderSummaryDto(UUID.randomUUID().toString(), "Tailor " + i % 50, "Cotton",
+                    "DISPATCHED", LocalDateTime.now(), "manager@gmail.com"));
+        }
+    }
+
+    @Benchmark
+    public String dailyReport() {
+        DailyReport dailyReport = new DailyReport();
+        for (OrderSummaryDto order : orderList) {
+            dailyReport.add(order);
+        }
+        return dailyReport.build();
+    }
+
+    @Benchmark
+    public String stringConcat() {
+        String body = "Hello Sir,\n\nHere is the Order Details that have been Completed Today...";
+        int count = 0;
+        for (OrderSummaryDto order : orderList) {
+            body += "\n\n" + ++count + ". orderId = " + order.getOrderId()
+                    + "\n  tailorName= " + order.getTailorName()
+                    + "\n  fabric = " + order.getFabric();
+        }
+        return body;
+    }
+}
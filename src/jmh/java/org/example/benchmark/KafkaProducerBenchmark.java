@@ -0,0 +1,92 @@
+package org.example.benchmark;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to produce a burst of mail messages to kafka: one blocking send per message (first insert-to-kafka-route)
+ * vs wire tap to a batched, compressed producer (mail-topic producer settings). Both wait until every record is acked.
+ * Needs a broker on -Dkafka.bootstrap.servers (default localhost:9092), e.g. a local single node kafka or redpanda container.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class KafkaProducerBenchmark {
+
+    private static final String MESSAGE = "{\"subject\":\"Stitching Started\",\"messageBody\":\"Your order stitching started, Your orderId is: 6f1c2f7e-0c4b-4d0e-9a59-3f1e4c1d2b7a\",\"to\":\"customer@gmail.com\"}";
+
+    @Param({"none", "lz4", "zstd"})
+    String compressionCodec;
+
+    @Param({"0", "5"})
+    int lingerMs;
+
+    @Param({"65536"})
+    int batchSize;
+
+    @Param({"5000"})
+    int messages;
+
+    CamelContext camelContext;
+    ProducerTemplate producerTemplate;
+    volatile CountDownLatch acked;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        String brokers = System.getProperty("kafka.bootstrap.servers", "localhost:9092");
+        String producer = "kafka:mail-topic-benchmark?brokers=" + brokers
+                + "&lingerMs=" + lingerMs + "&batchSize=" + batchSize + "&compressionCodec=" + compressionCodec
+                + "&enableIdempotence=true&requestRequiredAcks=all";
+
+        camelContext = new DefaultCamelContext();
+        camelContext.addRoutes(new RouteBuilder() {
+            @Override
+            public void configure() {
+                from("direct:blocking")
+                        .to(producer)
+                        .process(exchange -> acked.countDown());
+
+                from("direct:wire-tap")
+                        .wireTap("direct:produce");
+
+                from("direct:produce")
+                        .to(producer + "&recordMetadata=false")
+                        .process(exchange -> acked.countDown());
+            }
+        });
+        camelContext.start();
+        producerTemplate = camelContext.createProducerTemplate();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        camelContext.stop();
+    }
+
+    @Benchmark
+    public void blockingSend() throws InterruptedException {
+        produce("direct:blocking");
+    }
+
+    @Benchmark
+    public void wireTapBatched() throws InterruptedException {
+        produce("direct:wire-tap");
+    }
+
+    private void produce(String endpoint) throws InterruptedException {
+        acked = new CountDownLatch(messages);
+        for (int i = 0; i < messages; i++) {
+            producerTemplate.sendBody(endpoint, MESSAGE);
+        }
+        acked.await();
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.example.model.Message;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing one kafka record in consume-from-kafka-route: new ObjectMapper per record from a String body (old)
+ * vs one shared ObjectReader straight from the record bytes. Writing the outbox payload in NotificationOutbox.add:
+ * new ObjectMapper per message vs one shared ObjectWriter. Run with -prof gc for allocation per record.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageJsonBenchmark {
+
+    private static final ObjectReader MESSAGE_READER = new ObjectMapper().readerFor(Message.class);
+    private static final ObjectWriter MESSAGE_WRITER = new ObjectMapper().writerFor(Message.class);
+
+    byte[] record; //what ByteArrayDeserializer hands over
+    Message message;
+
+    @Setup
+    public void setup() throws IOException {
+        record = "{\"subject\":\"Stitching Started\",\"messageBody\":\"Your order stitching started, Your orderId is: 6f1c2f7e-0c4b-4d0e-9a59-3f1e4c1d2b7a\",\"to\":\"customer@gmail.com\"}"
+                .getBytes(StandardCharsets.UTF_8);
+        message = MESSAGE_READER.readValue(record);
+    }
+
+    @Benchmark
+    public Message newMapperFromString() throws IOException {
+        String body = new String(record, StandardCharsets.UTF_8); //getBody(String.class)
+        return new ObjectMapper().readValue(body, Message.class);
+    }
+
+    @Benchmark
+    public Message sharedReaderFromBytes() throws IOException {
+        return MESSAGE_READER.readValue(record);
+    }
+
+    @Benchmark
+    public String newMapperToString() throws IOException {
+        return new ObjectMapper().writeValueAsString(message);
+    }
+
+    @Benchmark
+    public String sharedWriterToString() throws IOException {
+        return MESSAGE_WRITER.writeValueAsString(message);
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.example.model.Message;
+import org.example.model.OrderStage;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Notification built by the stage engine for one stage move: next stage, stage Message, and the JSON payload
+ * NotificationOutbox stores for it. Orders cycle through every stage so each subject/prefix is covered.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StageMessageBenchmark {
+
+    private static final ObjectWriter MESSAGE_WRITER = new ObjectMapper().writerFor(Message.class);
+    private static final OrderStage[] STAGES = OrderStage.values();
+
+    String orderId;
+    int stage;
+
+    @Setup
+    public void setup() {
+        orderId = UUID.randomUUID().toString();
+    }
+
+    private OrderStage nextStage() {
+        OrderStage next = STAGES[stage].next();
+        stage = next.isFinal() ? 0 : next.ordinal(); //start again with a placed order
+        return next;
+    }
+
+    @Benchmark
+    public Message toMessage() {
+        return nextStage().toMessage(orderId, "customer@gmail.com");
+    }
+
+    @Benchmark
+    public String toOutboxPayload() throws IOException {
+        return MESSAGE_WRITER.writeValueAsString(nextStage().toMessage(orderId, "customer@gmail.com"));
+    }
+}
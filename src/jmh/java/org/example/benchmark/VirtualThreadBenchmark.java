@@ -0,0 +1,83 @@
+package org.example.benchmark;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.seda.SedaComponent;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to push a burst of orders through seda:tailor when every order does blocking db calls
+ * (simulated with a sleep), on platform threads vs virtual threads.
+ * The virtual thread fork needs Java 21+, it fails with a message on older JVMs instead of measuring platform threads twice.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class VirtualThreadBenchmark {
+
+    @Param({"4", "200", "2000"})
+    int concurrentConsumers;
+
+    @Param({"2000"})
+    int orders;
+
+    @Param({"5"})
+    long dbLatencyMs; //updateOrder + updateTailor round trip
+
+    CamelContext camelContext;
+    ProducerTemplate producerTemplate;
+    volatile CountDownLatch done;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        if (Boolean.getBoolean("camel.threads.virtual.enabled") && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("virtualThreads needs Java 21 or newer, running on Java " + Runtime.version());
+        }
+        camelContext = new DefaultCamelContext();
+        camelContext.getComponent("seda", SedaComponent.class).setQueueSize(orders);
+        camelContext.addRoutes(new RouteBuilder() {
+            @Override
+            public void configure() {
+                from("seda:tailor?concurrentConsumers=" + concurrentConsumers)
+                        .process(exchange -> {
+                            Thread.sleep(dbLatencyMs); //blocking jpa call
+                            done.countDown();
+                        });
+            }
+        });
+        camelContext.start();
+        producerTemplate = camelContext.createProducerTemplate();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        camelContext.stop();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dcamel.threads.virtual.enabled=false")
+    public void platformThreads() throws InterruptedException {
+        placeOrders();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dcamel.threads.virtual.enabled=true")
+    public void virtualThreads() throws InterruptedException {
+        placeOrders();
+    }
+
+    private void placeOrders() throws InterruptedException {
+        done = new CountDownLatch(orders);
+        for (int i = 0; i < orders; i++) {
+            producerTemplate.sendBody("seda:tailor", i);
+        }
+        done.await();
+    }
+}
@@ -0,0 +1,124 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+import org.example.dto.OrderDto;
+import org.example.model.Fabric;
+import org.example.model.Order;
+import org.example.model.Person;
+import org.example.model.Tailor;
+import org.example.repository.FabricRepository;
+import org.example.repository.OrderRepository;
+import org.example.repository.PersonRepository;
+import org.example.repository.TailorRepository;
+import jakarta.transaction.Status;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * OrderService.validateOrder without a db: person lookup, fabric match in the catalog and tailor claim from the
+ * availability index, repositories are mocks. In the service package to wire the beans like TailorClaimConcurrencyTest.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class OrderPlacementBenchmark {
+
+    @Param({"100", "10000"})
+    int tailors;
+
+    @Param({"50"})
+    int fabrics;
+
+    OrderService orderService;
+    TailorAvailabilityIndex tailorAvailabilityIndex;
+    CamelContext camelContext;
+    OrderDto orderDto;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        //stubOnly- invocations are not recorded, so heap stays flat over millions of calls
+        PersonRepository personRepository = mock(PersonRepository.class, withSettings().stubOnly());
+        FabricRepository fabricRepository = mock(FabricRepository.class, withSettings().stubOnly());
+        TailorRepository tailorRepository = mock(TailorRepository.class, withSettings().stubOnly());
+        OrderRepository orderRepository = mock(OrderRepository.class, withSettings().stubOnly());
+
+        Person person = new Person();
+        person.setUserId(1L);
+        person.setEmail("customer@gmail.com");
+        when(personRepository.getPersonById(anyLong())).thenReturn(person);
+
+        List<Fabric> fabricList = new ArrayList<>();
+        for (int i = 0; i < fabrics; i++) {
+            Fabric fabric = new Fabric();
+            fabric.setFabricId(i);
+            fabric.setFabricName("Fabric-" + i);
+            fabricList.add(fabric);
+        }
+        when(fabricRepository.getAllFabrics()).thenReturn(fabricList);
+
+        List<Tailor> tailorList = new ArrayList<>();
+        for (int i = 0; i < tailors; i++) {
+            Tailor tailor = new Tailor();
+            tailor.setTailorId(i);
+            tailor.setTailorName("Tailor " + i);
+            tailor.setFabrics(List.of(fabricList.get(i % fabrics), fabricList.get((i + 1) % fabrics)));
+            tailorList.add(tailor);
+        }
+        when(tailorRepository.getAllTailorWithFabrics()).thenReturn(tailorList);
+        when(tailorRepository.claimTailor(anyLong(), anyString())).thenReturn(true);
+        when(tailorRepository.findById(anyLong())).thenAnswer(invocation -> tailorList.get(((Long) invocation.getArgument(0)).intValue()));
+
+        FabricCatalog fabricCatalog = new FabricCatalog();
+        fabricCatalog.fabricRepository = fabricRepository;
+        fabricCatalog.meterRegistry = new SimpleMeterRegistry();
+        fabricCatalog.init();
+        fabricCatalog.refresh();
+
+        tailorAvailabilityIndex = new TailorAvailabilityIndex();
+        tailorAvailabilityIndex.tailorRepository = tailorRepository;
+        tailorAvailabilityIndex.transactionSynchronizationRegistry = mock(TransactionSynchronizationRegistry.class, withSettings().stubOnly());
+        when(tailorAvailabilityIndex.transactionSynchronizationRegistry.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+        tailorAvailabilityIndex.reconcile();
+
+        orderService = new OrderService();
+        orderService.personRepository = personRepository;
+        orderService.fabricCatalog = fabricCatalog;
+        orderService.tailorRepository = tailorRepository;
+        orderService.orderRepository = orderRepository;
+        orderService.tailorAvailabilityIndex = tailorAvailabilityIndex;
+        orderService.meterRegistry = new SimpleMeterRegistry();
+        orderService.placedStageDuration = Duration.ofSeconds(30);
+
+        camelContext = new DefaultCamelContext();
+
+        orderDto = new OrderDto();
+        orderDto.setPersonId(1L);
+        orderDto.setFabric("FABRIC-7"); //matched case insensitive
+    }
+
+    @Benchmark
+    public Exchange validateOrder() {
+        Exchange exchange = new DefaultExchange(camelContext);
+        exchange.getIn().setBody(orderDto);
+        orderService.validateOrder(exchange);
+
+        Order order = exchange.getProperty("order", Order.class);
+        tailorAvailabilityIndex.release(order.getTailor().getTailorId()); //same free tailors for every call
+        return exchange;
+    }
+}
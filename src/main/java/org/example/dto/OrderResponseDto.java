@@ -1,9 +1,12 @@
 package org.example.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 
+import java.time.LocalDateTime;
+
 @ToString
 @Getter
 @Setter
@@ -11,4 +14,6 @@ public class OrderResponseDto {
     private String orderId;
     private String fabric; //fabric Name
     private String stage;
+    @JsonIgnore
+    private LocalDateTime stageInTime; //for ETag/Last-Modified, not in response body
 }
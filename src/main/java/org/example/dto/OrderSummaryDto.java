@@ -0,0 +1,24 @@
+package org.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+//order with its tailor and manager for report/alert mails- read by a "select new" query, no entities loaded
+@ToString
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryDto {
+    private String orderId;
+    private String tailorName;
+    private String fabric; //fabric Name
+    private String stage;
+    private LocalDateTime stageInTime;
+    private String managerEmail;
+}
@@ -20,9 +20,12 @@ public class Order {
     private String stage;
     @ManyToOne
     @JoinColumn(name = "tailor_tailorid", nullable = false)
+    @ToString.Exclude //tailor points back to the order by orderId
     private Tailor tailor;
     private boolean isCompleted;
     private LocalDateTime orderAcceptTime;
     private LocalDateTime orderCompleteTime;
     private LocalDateTime stageInTime;
+    private LocalDateTime nextStageTime; //when stage-scheduler-route moves order to next stage, null- no next stage
+    private String traceParent; //W3C traceparent of placeorder- stage-scheduler-route moves the order on in this trace
 }
@@ -0,0 +1,48 @@
+package org.example.model;
+
+import java.util.Locale;
+
+/**
+ * Order lifecycle, in order: an order always moves to the next constant, the last one completes it.
+ * A new stage is added by adding a constant here (and optionally order.stage.duration.&lt;stage&gt; in application.properties).
+ */
+public enum OrderStage {
+    PLACED(null, null),
+    CONFIRM("Order Confirmed", "Your order is confirmed. OrderId="),
+    FABRIC_CUT("Fabric Being Cut", "Your fabric is being cut. OrderId="),
+    STITCHING("Stitching Started", "Stitching has started. OrderId="),
+    QUALITY_CHECK("Quality Check", "Quality check is done. OrderId="),
+    DISPATCHED("Order Dispatched", "Your order is dispatched. OrderId=");
+
+    private static final OrderStage[] STAGES = values();
+
+    private final String subject; //mail subject when order enters this stage
+    private final String messagePrefix; //mail body = prefix + orderId
+    private final String configKey; //order.stage.duration.<configKey>
+
+    OrderStage(String subject, String messagePrefix) {
+        this.subject = subject;
+        this.messagePrefix = messagePrefix;
+        this.configKey = name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    public OrderStage next() {
+        return ordinal() + 1 < STAGES.length ? STAGES[ordinal() + 1] : null;
+    }
+
+    public boolean isFinal() {
+        return next() == null;
+    }
+
+    public String getConfigKey() {
+        return configKey;
+    }
+
+    public Message toMessage(String orderId, String to) {
+        Message message = new Message();
+        message.setSubject(subject);
+        message.setMessageBody(messagePrefix.concat(orderId));
+        message.setTo(to); //email-person
+        return message;
+    }
+}
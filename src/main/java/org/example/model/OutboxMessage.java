@@ -0,0 +1,22 @@
+package org.example.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import java.time.LocalDateTime;
+
+//notification waiting to be produced to kafka mail-topic- written in the same transaction as the change it is about
+@Entity
+@Getter
+@Setter
+@ToString
+public class OutboxMessage {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+    private String messageKey; //recipient- kafka record key
+    private String payload; //Message as json
+    private LocalDateTime createdTime;
+    private String traceParent; //W3C traceparent of the change- kafka record header
+}
@@ -16,6 +16,7 @@ public class Tailor {
     private long tailorId;
     private String tailorName;
     @ManyToMany
+    @ToString.Exclude //lazy- not loaded outside a session
     private List<Fabric> fabrics;
     private String orderId;
     @ManyToOne
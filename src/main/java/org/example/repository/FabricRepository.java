@@ -4,11 +4,12 @@ import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.transaction.Transactional;
 import org.example.model.Fabric;
+import java.util.List;
 
 @ApplicationScoped
 public class FabricRepository implements PanacheRepository<Fabric> {
     @Transactional
-    public long getFabricByName(String fabricName){
-        return find("fabricName=?1", fabricName).count();
+    public List<Fabric> getAllFabrics(){ //whole catalog- few rows, FabricCatalog keeps it in memory
+        return listAll();
     }
 }
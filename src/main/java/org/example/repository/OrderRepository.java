@@ -5,8 +5,9 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
+import org.example.dto.OrderSummaryDto;
 import org.example.model.Order;
-import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.time.LocalDateTime;
 
@@ -31,22 +32,67 @@ public class OrderRepository implements PanacheRepository<Order> {
         return order;
     }
 
+    //move order to next stage- only stage columns are written and only if order is still in expectedStage
     @Transactional
-    public  List<Order> getCompletedOrder(){ //to eagerly load tailor object- use transactional use for first time(avoid lazy loading)
-       List<Order> orderList =  list("orderCompleteTime BETWEEN ?1 AND ?2", LocalDate.now().minusDays(1).atStartOfDay(), LocalDate.now().minusDays(1).atTime(23,59,59)); //17,12:00:00am to 10,11:59:59pm
-        for(Order order : orderList){
-           order.getTailor(); //all order details -eagerly loading
-        }
-        return orderList;
+    public boolean updateStage(String orderId, String expectedStage, String stage, LocalDateTime stageInTime, LocalDateTime nextStageTime){
+        return update("stage=?1, stageInTime=?2, nextStageTime=?3 where orderId=?4 and stage=?5",
+                stage, stageInTime, nextStageTime, orderId, expectedStage) == 1;
     }
 
+    //last stage- order completed
     @Transactional
-    public List<Order> getAllDelayedOrder(){ //to eagerly load manager object- use transactional use for first time(avoid lazy loading)
-        List<Order> orderList = list("isCompleted=?1 and stageInTime<?2", false, LocalDateTime.now().minusDays(1)); //stageInTime< -17 or before
-        for(Order order : orderList){
-            order.getTailor().getManager(); //manager- eagerly loading
-        }
-        return orderList;
+    public boolean completeOrder(String orderId, String expectedStage, String stage, LocalDateTime completeTime){
+        return update("stage=?1, stageInTime=?2, orderCompleteTime=?2, nextStageTime=null, isCompleted=true where orderId=?3 and stage=?4",
+                stage, completeTime, orderId, expectedStage) == 1;
+    }
+
+    @Transactional
+    public List<Long> getPersonIdsWithOrder(Collection<Long> personIds){ //customers who have an order already- user_userId is unique
+        return entityManager.createQuery("select o.user.userId from Order o where o.user.userId in :personIds", Long.class)
+                .setParameter("personIds", personIds)
+                .getResultList();
+    }
+
+    @Transactional
+    public void deleteOrder(String orderId){
+        delete("orderId=?1", orderId);
+    }
+
+    //orders whose current stage is over, oldest first- customer and tailor (with manager) come in the same query,
+    //eager associations are not loaded with one select per row
+    @Transactional
+    public List<Order> getDueOrders(LocalDateTime now, int limit){
+        return find("from Order o left join fetch o.user u left join fetch u.role"
+                        + " join fetch o.tailor t left join fetch t.manager m left join fetch m.role"
+                        + " where o.isCompleted = false and o.nextStageTime <= ?1 order by o.nextStageTime", now)
+                .page(0, limit)
+                .list();
+    }
+
+    private static final String ORDER_SUMMARY = "select new org.example.dto.OrderSummaryDto(o.orderId, t.tailorName, o.fabric, o.stage, o.stageInTime, m.email)"
+            + " from Order o join o.tailor t left join t.manager m";
+
+    //one page of orders completed before "to", after (afterTime, afterOrderId) in (orderCompleteTime, orderId) order-
+    //keyset on the index idx_orders_complete_time_order_id, every page starts where the last one ended
+    //stageInTime of the summary is the complete time, the key of the next page
+    @Transactional
+    public List<OrderSummaryDto> getCompletedOrderPage(LocalDateTime afterTime, String afterOrderId, LocalDateTime to, int limit){
+        return entityManager.createQuery("select new org.example.dto.OrderSummaryDto(o.orderId, t.tailorName, o.fabric, o.stage, o.orderCompleteTime, m.email)"
+                        + " from Order o join o.tailor t left join t.manager m"
+                        + " where (o.orderCompleteTime, o.orderId) > (:afterTime, :afterOrderId) and o.orderCompleteTime < :to"
+                        + " order by o.orderCompleteTime, o.orderId", OrderSummaryDto.class)
+                .setParameter("afterTime", afterTime)
+                .setParameter("afterOrderId", afterOrderId)
+                .setParameter("to", to)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Transactional
+    public List<OrderSummaryDto> getAllDelayedOrder(){ //orders stuck in a stage for more than a day, with manager email- one query
+        return entityManager.createQuery(ORDER_SUMMARY + " where o.isCompleted = false and o.stageInTime < :stuckSince", OrderSummaryDto.class)
+                .setParameter("stuckSince", LocalDateTime.now().minusDays(1)) //stageInTime< -17 or before
+                .getResultList();
     }
 
 }
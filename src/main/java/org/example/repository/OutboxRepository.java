@@ -0,0 +1,33 @@
+package org.example.repository;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.transaction.Transactional;
+import org.example.model.OutboxMessage;
+
+import java.util.Collection;
+import java.util.List;
+
+@ApplicationScoped
+public class OutboxRepository implements PanacheRepository<OutboxMessage> {
+
+    @Transactional
+    public void enqueue(OutboxMessage outboxMessage){ //joins the caller's transaction
+        persist(outboxMessage);
+    }
+
+    //oldest messages, locked until the transaction ends- rows locked by another relay are skipped, not waited for
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public List<OutboxMessage> lockBatch(int limit){
+        return getEntityManager()
+                .createNativeQuery("select * from OutboxMessage order by id limit :limit for update skip locked", OutboxMessage.class)
+                .setParameter("limit", limit)
+                .getResultList();
+    }
+
+    @Transactional
+    public void deleteByIds(Collection<Long> ids){
+        delete("id in ?1", ids);
+    }
+}
@@ -4,6 +4,7 @@ import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.transaction.Transactional;
 import org.example.model.Person;
+import java.util.Collection;
 import java.util.List;
 
 @ApplicationScoped
@@ -13,6 +14,11 @@ public class PersonRepository implements PanacheRepository<Person> {
         return findById(personId);
     }
 
+    @Transactional
+    public List<Person> getPersonsByIds(Collection<Long> personIds){ //one query for many persons
+        return list("userId in ?1", personIds);
+    }
+
     @Transactional
     public List<Person> findAllOwners() {
         return list("role.roleName", "Owner"); //or (role.roleId, 2)
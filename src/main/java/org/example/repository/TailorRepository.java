@@ -6,6 +6,7 @@ import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import org.example.model.Tailor;
+import java.util.Collection;
 import java.util.List;
 
 @ApplicationScoped
@@ -27,4 +28,24 @@ public class TailorRepository implements PanacheRepository<Tailor> {
     public List<Tailor> getAvailableTailor(){
         return  list("orderId IS NULL"); //tailor is free
     }
+
+    @Transactional
+    public boolean claimTailor(long tailorId, String orderId){ //occupy tailor only if still free- two orders can not get same tailor
+        return update("orderId=?1 where tailorId=?2 and orderId IS NULL", orderId, tailorId) == 1;
+    }
+
+    @Transactional
+    public void releaseTailor(long tailorId){ //tailor is free
+        update("orderId=null where tailorId=?1", tailorId);
+    }
+
+    @Transactional
+    public List<Tailor> getTailorsByIds(Collection<Long> tailorIds){
+        return list("tailorId in ?1", tailorIds);
+    }
+
+    @Transactional
+    public List<Tailor> getAllTailorWithFabrics(){ //fabrics are lazy- fetch them in the same query
+        return list("from Tailor t left join fetch t.fabrics");
+    }
 }
@@ -0,0 +1,45 @@
+package org.example.route;
+
+import org.apache.camel.AggregationStrategy;
+import org.apache.camel.Exchange;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Joins the mails of one recipient (exchange property "to") into one digest mail.
+ * A single mail keeps its own subject, a digest gets DIGEST_SUBJECT with the number of updates.
+ * The mail-topic records of the digest go with it (RECORDS), MailTopicOffsets commits them once the mail is sent.
+ */
+public class MailDigestAggregationStrategy implements AggregationStrategy {
+
+    static final String DIGEST_SUBJECT = "Your order updates";
+    static final String DIGEST_COUNT = "digestCount";
+    static final String RECORDS = "mailTopicRecords";
+    private static final String SEPARATOR = System.lineSeparator() + System.lineSeparator();
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Exchange aggregate(Exchange oldExchange, Exchange newExchange) {
+        if (oldExchange == null) { //first mail of the recipient
+            newExchange.setProperty(DIGEST_COUNT, 1);
+            newExchange.setProperty(RECORDS, addRecord(new ArrayList<>(), newExchange));
+            return newExchange;
+        }
+
+        int count = oldExchange.getProperty(DIGEST_COUNT, Integer.class) + 1;
+        oldExchange.setProperty(DIGEST_COUNT, count);
+        oldExchange.setProperty("subject", DIGEST_SUBJECT + " (" + count + ")");
+        oldExchange.getIn().setBody(oldExchange.getIn().getBody(String.class) + SEPARATOR + newExchange.getIn().getBody(String.class));
+        addRecord(oldExchange.getProperty(RECORDS, List.class), newExchange);
+        return oldExchange;
+    }
+
+    private static List<MailTopicOffsets.TopicRecord> addRecord(List<MailTopicOffsets.TopicRecord> records, Exchange exchange) {
+        MailTopicOffsets.TopicRecord record = exchange.getProperty(MailTopicOffsets.RECORD, MailTopicOffsets.TopicRecord.class);
+        if (record != null) {
+            records.add(record);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.route;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.apache.camel.Exchange;
+import org.apache.camel.component.kafka.KafkaConstants;
+import org.apache.camel.component.kafka.consumer.KafkaManualCommit;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Commits mail-topic offsets once the mails of the records are sent, not when they enter a digest.
+ * A digest holds the records of one recipient from anywhere in a partition, so a partition is committed only up to
+ * the record before the first one whose mail is still waiting. A mail send-mail-route gives up on counts as sent
+ * (mail-dead-letter-route), so it does not hold back the commits of its partition. A partition taken from this consumer
+ * by a rebalance is dropped (MailTopicRebalance)- its records are consumed again by the new owner.
+ */
+@ApplicationScoped
+public class MailTopicOffsets {
+
+    static final String RECORD = "mailTopicRecord"; //exchange property- partition and offset of the record
+
+    public record TopicRecord(int partition, long offset) {
+    }
+
+    private static class Pending {
+        final KafkaManualCommit manualCommit;
+        boolean sent;
+
+        Pending(KafkaManualCommit manualCommit) {
+            this.manualCommit = manualCommit;
+        }
+    }
+
+    private final Map<Integer, NavigableMap<Long, Pending>> pending = new HashMap<>(); //partition -> offset -> record
+
+    //record read from mail-topic- nothing to commit for records that do not come from kafka (stand-in, tests)
+    public synchronized void consumed(Exchange exchange) {
+        KafkaManualCommit manualCommit = exchange.getIn().getHeader(KafkaConstants.MANUAL_COMMIT, KafkaManualCommit.class);
+        Integer partition = exchange.getIn().getHeader(KafkaConstants.PARTITION, Integer.class);
+        Long offset = exchange.getIn().getHeader(KafkaConstants.OFFSET, Long.class);
+        if (manualCommit == null || partition == null || offset == null) {
+            return;
+        }
+        pending.computeIfAbsent(partition, p -> new TreeMap<>()).put(offset, new Pending(manualCommit));
+        exchange.setProperty(RECORD, new TopicRecord(partition, offset));
+    }
+
+    //mail with these records sent (MailDigestAggregationStrategy.RECORDS)- commit every partition as far as it is sent
+    @SuppressWarnings("unchecked")
+    public synchronized void sent(Exchange exchange) {
+        List<TopicRecord> records = exchange.getProperty(MailDigestAggregationStrategy.RECORDS, List.class);
+        if (records == null) {
+            return;
+        }
+        for (TopicRecord record : records) {
+            NavigableMap<Long, Pending> offsets = pending.get(record.partition());
+            Pending sent = offsets == null ? null : offsets.get(record.offset());
+            if (sent == null) { //partition was revoked and consumed again
+                continue;
+            }
+            sent.sent = true;
+
+            KafkaManualCommit last = null;
+            while (!offsets.isEmpty() && offsets.firstEntry().getValue().sent) {
+                last = offsets.pollFirstEntry().getValue().manualCommit;
+            }
+            if (last != null) {
+                last.commit(); //offset + 1- every record before it is sent
+            }
+        }
+    }
+
+    //partitions no longer assigned to this consumer- their commits would fail, digests still holding them commit nothing
+    public synchronized void revoked(Collection<TopicPartition> partitions) {
+        for (TopicPartition partition : partitions) {
+            pending.remove(partition.partition());
+        }
+    }
+
+    public synchronized int pendingCount() {
+        return pending.values().stream().mapToInt(Map::size).sum();
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.route;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import org.apache.camel.component.kafka.consumer.support.subcription.DefaultSubscribeAdapter;
+import org.apache.camel.component.kafka.consumer.support.subcription.SubscribeAdapter;
+import org.apache.camel.component.kafka.consumer.support.subcription.TopicInfo;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Collection;
+
+//kafka consumers of consume-from-kafka-route subscribe through this bean (camel looks up "subscribeAdapter")-
+//partitions revoked or lost in a rebalance are dropped from MailTopicOffsets before camel's own listener runs
+@ApplicationScoped
+@Named("subscribeAdapter")
+public class MailTopicRebalance implements SubscribeAdapter {
+
+    @Inject
+    MailTopicOffsets mailTopicOffsets;
+
+    private final SubscribeAdapter subscribeAdapter = new DefaultSubscribeAdapter();
+
+    @Override
+    public void subscribe(Consumer<?, ?> consumer, ConsumerRebalanceListener reBalanceListener, TopicInfo topicInfo) {
+        subscribeAdapter.subscribe(consumer, new ConsumerRebalanceListener() {
+            @Override
+            public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+                mailTopicOffsets.revoked(partitions);
+                reBalanceListener.onPartitionsRevoked(partitions);
+            }
+
+            @Override
+            public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+                reBalanceListener.onPartitionsAssigned(partitions);
+            }
+
+            @Override
+            public void onPartitionsLost(Collection<TopicPartition> partitions) {
+                mailTopicOffsets.revoked(partitions);
+                reBalanceListener.onPartitionsLost(partitions);
+            }
+        }, topicInfo);
+    }
+}
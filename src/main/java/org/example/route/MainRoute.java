@@ -1,24 +1,45 @@
 package org.example.route;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.TextMapGetter;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import org.apache.camel.Exchange;
+import org.apache.camel.ExchangeTimedOutException;
+import org.apache.camel.ProducerTemplate;
 import org.apache.camel.builder.RouteBuilder;
-import org.apache.camel.model.dataformat.JsonLibrary;
+import org.apache.camel.component.seda.SedaEndpoint;
+import org.apache.camel.model.RouteDefinition;
 import org.apache.camel.model.rest.RestBindingMode;
 import org.apache.camel.model.rest.RestParamType;
+import org.apache.camel.tracing.ActiveSpanManager;
+import org.apache.camel.tracing.SpanAdapter;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.example.dto.OrderDto;
+import org.example.dto.OrderSummaryDto;
 import org.example.model.Message;
 import org.example.model.Order;
 import org.example.model.Person;
-import org.example.model.Tailor;
 import org.example.repository.OrderRepository;
 import org.example.repository.PersonRepository;
 import org.example.repository.TailorRepository;
+import org.example.service.DailyReportService;
+import org.example.service.FabricCatalog;
+import org.example.service.NotificationOutbox;
+import org.example.service.OrderLifecycle;
 import org.example.service.OrderService;
+import org.example.service.TailorAvailabilityIndex;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 @ApplicationScoped
@@ -31,9 +52,63 @@ public class MainRoute extends RouteBuilder {
     TailorRepository tailorRepository;
     @Inject
     PersonRepository personRepository;
+    @Inject
+    TailorAvailabilityIndex tailorAvailabilityIndex;
+    @Inject
+    FabricCatalog fabricCatalog;
+    @Inject
+    MeterRegistry meterRegistry;
+    @Inject
+    OrderLifecycle orderLifecycle;
+    @Inject
+    ObjectMapper objectMapper; //quarkus configured mapper
+    @Inject
+    DailyReportService dailyReportService;
+    @Inject
+    NotificationOutbox notificationOutbox;
+    @Inject
+    MailTopicOffsets mailTopicOffsets;
+    @Inject
+    ProducerTemplate producerTemplate;
+    @Inject
+    OpenTelemetry openTelemetry;
+
+    //bounded queue- size is tailor.seda.queue-size (this queue only), producer waits offerTimeout ms when it is full
+    private static final String TAILOR_QUEUE_CONSUMER = "seda:tailor?size={{tailor.seda.queue-size}}&concurrentConsumers={{tailor.seda.concurrent-consumers}}";
+    private static final String TAILOR_QUEUE_PRODUCER = "seda:tailor?size={{tailor.seda.queue-size}}&WaitForTaskToComplete=Never&blockWhenFull={{tailor.seda.block-when-full}}&offerTimeout={{tailor.seda.offer-timeout}}";
+
+    //mail-topic endpoints (mail.topic.* in application.properties)- kafka, a load test swaps in local stand-ins
+    @ConfigProperty(name = "mail.topic.producer")
+    String mailTopicProducer;
+
+    @ConfigProperty(name = "mail.topic.consumer")
+    String mailTopicConsumer;
+
+    @ConfigProperty(name = "order.stage.scheduler.batch-size")
+    int stageSchedulerBatchSize;
+
+    //opt-in (Java 21): camel thread pools- seda consumers, kafka consumers and threads()- create virtual threads
+    @ConfigProperty(name = "camel.threads.virtual.enabled", defaultValue = "false")
+    boolean virtualThreads;
 
     @Override
     public void configure() throws Exception {
+        checkVirtualThreads();
+
+        //orders waiting in seda:tailor- to size the queue (tailor.seda.queue-size)
+        SedaEndpoint tailorQueue = getContext().getEndpoint(TAILOR_QUEUE_CONSUMER, SedaEndpoint.class);
+        Gauge.builder("tailor.queue.depth", tailorQueue, SedaEndpoint::getCurrentQueueSize)
+                .description("Orders waiting in seda:tailor")
+                .register(meterRegistry);
+        //share of tailors working on an order- orders queue up in seda:tailor when it stays near 1
+        Gauge.builder("tailor.free", tailorAvailabilityIndex, TailorAvailabilityIndex::freeTailorCount)
+                .description("Tailors without an order")
+                .register(meterRegistry);
+        Gauge.builder("tailor.utilization", tailorAvailabilityIndex,
+                        index -> index.tailorCount() == 0 ? 0 : 1 - (double) index.freeTailorCount() / index.tailorCount())
+                .description("Share of tailors working on an order")
+                .register(meterRegistry);
+
         //use platform-http component for handling RESTful requests while enabling automatic JSON-to-Java (and vice versa) conversion, ensuring seamless data processing between HTTP requests and Camel routes.
         restConfiguration().component("platform-http").bindingMode(RestBindingMode.json);
 
@@ -41,172 +116,148 @@ public class MainRoute extends RouteBuilder {
                 .post("/placeorder") //request body of exchange
                 .type(OrderDto.class)   //type- map which pojo-json to java object
                 .to("direct:validate-order-tmp")
+                .post("/placeorders") //bulk placeorder- json array of orders
+                .type(OrderDto[].class)
+                .to("direct:validate-orders-tmp")
                 .get("/trackorder")
                 .param().type(RestParamType.query).name("orderId").dataType("string").endParam() //for queryParam-get()
                 .to("direct:track-order-tmp")
         ;
 
-        from("direct:validate-order-tmp")
-                .to("direct:validate-order")
-        ;
+        restBridge("direct:validate-order-tmp", "direct:validate-order");
 
         from("direct:validate-order")
                 .routeId("validate-order-route")
-                .bean(orderService, "validateOrder") //bean class and related method
-                .to("seda:tailor?WaitForTaskToComplete=Never") //seda- asynchronous call
+                .onException(ExchangeTimedOutException.class, IllegalStateException.class) //seda:tailor filled up after the check- placed order cancelled
+                    .onWhen(exchangeProperty("order").isNotNull())
+                    .handled(true)
+                    .bean(orderService, "cancelPlacedOrder")
+                    .setBody(constant(OrderService.ORDER_QUEUE_FULL))
+                    .setHeader(Exchange.HTTP_RESPONSE_CODE, constant(503))
+                    .setHeader("Retry-After", simple("{{tailor.seda.retry-after}}"))
+                .end()
+                .choice()
+                    .when(exchange -> tailorQueueFull(tailorQueue, exchange.getIn().getBody()))
+                        .to("direct:tailor-queue-full") //before a tailor is claimed
+                    .otherwise()
+                        .bean(orderService, "validateOrder") //bean class and related method
+                        .process(MainRoute::tagOrderId)
+                        .filter(exchangeProperty("order").isNotNull()) //rejected (404)- nothing for the tailor
+                            .to(TAILOR_QUEUE_PRODUCER) //seda- asynchronous call
+                        .end()
+                .end()
+        ;
+
+        restBridge("direct:validate-orders-tmp", "direct:validate-orders");
+
+        from("direct:validate-orders")
+                .routeId("validate-orders-route")
+                .choice()
+                    .when(exchange -> tailorQueueFull(tailorQueue, exchange.getIn().getBody()))
+                        .to("direct:tailor-queue-full") //no room for every order of the request
+                    .otherwise()
+                        .bean(orderService, "validateOrders") //body- result per order
+                        .split(exchangeProperty("orders")) //every placed order to seda, same as single placeorder
+                            .process(exchange -> {
+                                Order order = exchange.getIn().getBody(Order.class);
+                                exchange.setProperty("order", order);
+                                exchange.setProperty("tailor", order.getTailor());
+                            })
+                            .doTry()
+                                .to(TAILOR_QUEUE_PRODUCER)
+                            .doCatch(ExchangeTimedOutException.class, IllegalStateException.class) //filled up meanwhile
+                                .bean(orderService, "cancelPlacedOrder")
+                            .end()
+                        .end() //split
+                .end()
         ;
 
-        from("direct:track-order-tmp")
-                .to("direct:track-order")
+        //seda:tailor is full- answered without claiming a tailor, client tries again after Retry-After(seconds)
+        from("direct:tailor-queue-full")
+                .routeId("tailor-queue-full-route")
+                .process(exchange -> orderService.reject("queue-full"))
+                .setBody(constant(OrderService.ORDER_QUEUE_FULL))
+                .setHeader(Exchange.HTTP_RESPONSE_CODE, constant(503))
+                .setHeader("Retry-After", simple("{{tailor.seda.retry-after}}"))
         ;
 
+        restBridge("direct:track-order-tmp", "direct:track-order");
+
         from("direct:track-order")
                 .routeId("track-order-route")
                 .bean(orderService, "getOrderById")
         ;
 
-        from("seda:tailor")
+        from(TAILOR_QUEUE_CONSUMER)
                 .routeId("tailor-route")
-                .log("tailor route invoked-------------------------------------------------->")
                 .choice().when(exchange -> exchange.getProperty("order", Order.class) != null)
-                .log("order received, order=${exchangeProperty.order}, tailor=${exchangeProperty.tailor}") //check log
-                .to("direct:confirm-stage") //Order Confirmed Message by seda
+                .process(MainRoute::tagOrderId)
+                .log("order received, orderId=${exchangeProperty.order.orderId}, tailorId=${exchangeProperty.tailor.tailorId}") //ids only- entities left their session
+                .to("direct:advance-stage") //Order Confirmed Message by seda
         ;
 
-        from("direct:confirm-stage") //direct- synchronous call - Stages
-                .routeId("confirm-stage-route")
-                .log("In Confirm Stage")
-                .process(exchange -> { //process()-use for Java DSL, manipulate or process the Exchange within a route.
-                    Order order = exchange.getProperty("order", Order.class); //bahar route
-                    order.setStage("CONFIRM");
-                    order.setStageInTime(LocalDateTime.now());
-
-                    orderRepository.updateOrder(order); //update to db
-
-                    Message message = new Message();
-                    message.setSubject("Order Confirmed");
-                    message.setMessageBody("Your order is confirmed. OrderId=" + order.getOrderId());
-                    message.setTo(order.getUser().getEmail()); //email-person
-
-                    exchange.getIn().setBody(message);
-                })
-                .to("direct:insert-to-kafka")
-                .to("direct:fabric-cut-stage")
+        //an order stays in a stage for the configured duration, then this route moves it to the next stage
+        //due orders are read from db on every tick, so no thread is blocked per order while it waits
+        from("timer://stage-scheduler?delay={{order.stage.scheduler.period}}&period={{order.stage.scheduler.period}}")
+                .routeId("stage-scheduler-route")
+                .process(exchange -> exchange.getIn().setBody(orderRepository.getDueOrders(LocalDateTime.now(), stageSchedulerBatchSize)))
+                .split(body())
+                    .process(exchange -> {
+                        Order order = exchange.getIn().getBody(Order.class);
+                        exchange.setProperty("order", order);
+                        exchange.setProperty("tailor", order.getTailor());
+                        //timer ticks start no trace- the stage move joins the trace of the order's placeorder
+                        try (Scope scope = traceContext(order.getTraceParent()).makeCurrent()) {
+                            producerTemplate.send("direct:advance-stage", exchange);
+                        }
+                    })
+                .end() //split
         ;
 
-        from("direct:fabric-cut-stage")
-                .routeId("fabric-cut-stage-route")
-                .log("In Fabric Being Cut Stage")
-                //.delay(20000)
-                .process(exchange -> {
-                    Order order = exchange.getProperty("order", Order.class); //bahar route
-                    order.setStage("FABRIC_CUT");
-                    order.setStageInTime(LocalDateTime.now());
-
-                    orderRepository.updateOrder(order); //update to db
-
-                    Message message = new Message();
-                    message.setSubject("Fabric Being Cut");
-                    message.setMessageBody("Your fabric is being cut. OrderId=" + order.getOrderId());
-                    message.setTo(order.getUser().getEmail()); //email-person
-
-                    exchange.getIn().setBody(message);
-                })
-                .to("direct:insert-to-kafka")
-                .to("direct:stitching-stage")
+        //one engine for every stage- lifecycle (stages, durations, messages) is defined in OrderStage
+        from("direct:advance-stage") //direct- synchronous call - Stages
+                .routeId("stage-engine-route")
+                .process(MainRoute::tagOrderId)
+                .log("order ${exchangeProperty.order.orderId} leaving stage ${exchangeProperty.order.stage}")
+                .bean(orderLifecycle, "advance") //next stage, notification stored in outbox, body- message
         ;
 
-        from("direct:stitching-stage")
-                .routeId("stitching-stage-route")
-                .log("In Stitching Stage")
-                //.delay(10000)
-                .process(exchange -> {
-                    Order order = exchange.getProperty("order", Order.class); //bahar route
-                    order.setStage("STITCHING");
-                    order.setStageInTime(LocalDateTime.now());
-
-                    orderRepository.updateOrder(order);//update to db
-
-                    Message message = new Message();
-                    message.setSubject("Stitching Started");
-                    message.setMessageBody("Stitching has started. OrderId=" + order.getOrderId());
-                    message.setTo(order.getUser().getEmail()); //email-person
-
-                    exchange.getIn().setBody(message);
-                })
-                .to("direct:insert-to-kafka")
-                .to("direct:quality-check-stage")
+        //notifications of other routes (daily report, manager alert) go through the outbox as well
+        from("direct:insert-to-kafka")
+                .routeId("insert-to-kafka-route")
+                .bean(notificationOutbox, "add")
         ;
 
-        from("direct:quality-check-stage")
-                .routeId("quality-check-stage-route")
-                .log("In Quality Check Stage")
-                //.delay(10000)
-                .process(exchange -> {
-                    Order order = exchange.getProperty("order", Order.class); //bahar route
-                    order.setStage("QUALITY_CHECK");
-                    order.setStageInTime(LocalDateTime.now());
-
-                    orderRepository.updateOrder(order); //update to db
-
-                    Message message = new Message();
-                    message.setSubject("Quality Check");
-                    message.setMessageBody("Quality check is done. OrderId=" + order.getOrderId());
-                    message.setTo(order.getUser().getEmail()); //email-person
-
-                    exchange.getIn().setBody(message);
-                })
-                .to("direct:insert-to-kafka")
-                .to("direct:order-dispatched-stage")
+        //outbox -> kafka in batches, independent of stage latency
+        from("timer://outbox-relay?period={{outbox.relay.period}}")
+                .routeId("outbox-relay-route")
+                .bean(notificationOutbox, "relay")
         ;
 
-        from("direct:order-dispatched-stage")
-                .routeId("order-dispatched-stage-route")
-                .log("In Order Dispatched Stage")
-                .process(exchange -> {
-                    Order order = exchange.getProperty("order", Order.class); //bahar route
-
-                    order.setStage("DISPATCHED");
-                    order.setCompleted(true);
-                    order.setOrderCompleteTime(LocalDateTime.now());
-                    order.setStageInTime(LocalDateTime.now());
-
-                    orderRepository.updateOrder(order); //update to db
-
-                    Tailor tailor = exchange.getProperty("tailor", Tailor.class);
-                    tailor.setOrderId(null); //tailor free now
-                    tailorRepository.updateTailor(tailor); //update to db
-
-                    Message message = new Message();
-                    message.setSubject("Order Dispatched");
-                    message.setMessageBody("Your order is dispatched. OrderId=" + order.getOrderId());
-                    message.setTo(order.getUser().getEmail()); //email-person
-
-                    exchange.getIn().setBody(message); //message go to kafka
-                })
-                .to("direct:insert-to-kafka")
+        //body- list of records of one outbox batch, exchange completes when the broker acked all of them
+        from("direct:produce-to-kafka")
+                .routeId("produce-to-kafka-route")
+                .to(mailTopicProducer) // produce to Kafka topic
         ;
 
-        from("direct:insert-to-kafka")
-                .routeId("insert-to-kafka-route")
-                .marshal().json(JsonLibrary.Jackson) //convert msg object to jsonString
-                .to("kafka:mail-topic?brokers={{kafka.bootstrap.servers}}") // produce to Kafka topic
-        ;
+        //records read as byte[] and parsed by one shared reader- no String and no ObjectMapper per message
+        ObjectReader messageReader = objectMapper.readerFor(Message.class);
 
-        from("kafka:mail-topic?brokers={{kafka.bootstrap.servers}}&groupId=consumer-group") //when msg produce to kafka automatically consume
+        //consumersCount consumers, each owns its partitions and handles their records one by one- order per partition kept
+        //offset committed once the digest with the mail is sent (MailTopicOffsets), a failed record is consumed again
+        from(mailTopicConsumer) //when msg produce to kafka automatically consume
                 .routeId("consume-from-kafka-route")
-                .log("Received message from Kafka: ${body}")
                 .process(exchange -> {
-                    String message = exchange.getIn().getBody(String.class); //jsonString
-                    ObjectMapper objectMapper = new ObjectMapper();
-                    Message obj = objectMapper.readValue(message, Message.class); //convert jsonStrong to msg object
+                    Message obj = messageReader.readValue(exchange.getIn().getBody(byte[].class)); //convert json to msg object
                     //set message- to,subject,messageBody in exchange property
                     exchange.setProperty("to", obj.getTo());
                     exchange.setProperty("subject", obj.getSubject());
 
                     exchange.getIn().setBody(obj.getMessageBody());
                 })
-                .to("direct:send-mail") //MailRoute.class
+                .log("Received message from Kafka: ${exchangeProperty.subject} to ${exchangeProperty.to}")
+                .bean(mailTopicOffsets, "consumed") //pending until its mail is sent
+                .to("direct:mail-digest") //MailRoute.class- one digest mail per recipient
         ;
 
         //mail to owner- 12:05am- route invoke automatically and provide previous day data
@@ -215,25 +266,14 @@ public class MainRoute extends RouteBuilder {
                 .routeId("daily-update-scheduler-route")
                 .log("route for daily update trigger")
                 .process(exchange -> {
-                    List<Order> orderList = orderRepository.getCompletedOrder(); //list of orders- 12:00am - 11:59:59pm
-                    List<Person> personList = personRepository.findAllOwners(); //Owners
-                    List<Message> msgList = new ArrayList<>();
-
-                    log.info("orderList------------->{}", orderList);
-                    log.info("personList------------->{}", personList);
-
-                    String messageBody = "Hello Sir,\n\nHere is the Order Details that have been Completed Today...";
-
-                    for (int i = 0; i < orderList.size(); i++) {
-                        Order order = orderList.get(i);
-                        messageBody = messageBody + "\n\n" + (i + 1) + ". orderId = " + order.getOrderId() + "\n  tailorName= " + order.getTailor().getTailorName() + "\n  fabric = " + order.getFabric();
-                    }
+                    String report = dailyReportService.completedOrderReport(LocalDate.now().minusDays(1)); //12:00am - 11:59:59pm
 
-                    if (!orderList.isEmpty()) {
-                        for (Person person : personList) { //Owner
+                    if (report != null) {
+                        List<Message> msgList = new ArrayList<>();
+                        for (Person person : personRepository.findAllOwners()) { //Owner
                             Message message = new Message();
                             message.setTo(person.getEmail()); //whom to send
-                            message.setMessageBody(messageBody);
+                            message.setMessageBody(report); //same report for every owner
                             message.setSubject("Order Completed Report");
 
                             msgList.add(message);
@@ -251,21 +291,37 @@ public class MainRoute extends RouteBuilder {
                 .end()
         ;
 
+        //keep tailor availability index in line with db (tailors added/changed outside the app)
+        from("timer://tailor-index-sync?delay={{tailor.index.sync-period}}&period={{tailor.index.sync-period}}")
+                .routeId("tailor-index-sync-route")
+                .bean(tailorAvailabilityIndex, "reconcile")
+        ;
+
+        //fabrics added/renamed in db reach the catalog within fabric.catalog.refresh-period
+        from("timer://fabric-catalog-sync?delay={{fabric.catalog.refresh-period}}&period={{fabric.catalog.refresh-period}}")
+                .routeId("fabric-catalog-sync-route")
+                .bean(fabricCatalog, "refresh")
+        ;
+
         //every 2 minute- 0 */2 * * * ?     0 5 0 * * ?
         from("cron://notify-manager?schedule=0 5 0 * * ?") //If order stuck send alert email to manager
                 .routeId("notify-manager-route")
                 .log("route for update to manager trigger")
                 .process(exchange -> {
-                    List<Order> orderList = orderRepository.getAllDelayedOrder(); //delay Orders list
+                    List<OrderSummaryDto> orderList = orderRepository.getAllDelayedOrder(); //delay Orders list- with manager email
                     List<Message> msgList = new ArrayList<>();
 
                     if (!orderList.isEmpty()) {
-                        for (Order order : orderList) {
+                        for (OrderSummaryDto order : orderList) {
+                            if (order.getManagerEmail() == null) { //tailor without manager- nobody to alert
+                                log.warn("order {} is stuck but tailor {} has no manager", order.getOrderId(), order.getTailorName());
+                                continue;
+                            }
                             Message message = new Message();
-                            message.setTo(order.getTailor().getManager().getEmail());
+                            message.setTo(order.getManagerEmail());
                             message.setSubject("Order is Stuck more than 1 day");
 
-                            String messageBody = "Hello Sir,\n\nThis order have been stuck for more than 1 day. Here is the order details:\n\norderId=" + order.getOrderId() + "\ntailorName=" + order.getTailor().getTailorName() + "\nfabricName=" + order.getFabric() + "\nstageName=" + order.getStage() + "\nstageInTime=" + order.getStageInTime();
+                            String messageBody = "Hello Sir,\n\nThis order have been stuck for more than 1 day. Here is the order details:\n\norderId=" + order.getOrderId() + "\ntailorName=" + order.getTailorName() + "\nfabricName=" + order.getFabric() + "\nstageName=" + order.getStage() + "\nstageInTime=" + order.getStageInTime();
 
                             message.setMessageBody(messageBody);
                             msgList.add(message);
@@ -284,4 +340,60 @@ public class MainRoute extends RouteBuilder {
         ;
     }
 
+    //rest request goes on to the real route- with virtual threads it leaves the http worker pool for a virtual thread,
+    //so blocking jpa calls do not hold a platform thread
+    private void restBridge(String from, String to) {
+        RouteDefinition route = from(from);
+        if (virtualThreads) {
+            route.threads().to(to);
+        } else {
+            route.to(to);
+        }
+    }
+
+    //build targets Java 17- stop at startup instead of running half the app on platform threads
+    private void checkVirtualThreads() {
+        if (!virtualThreads) {
+            return;
+        }
+        if (Runtime.version().feature() < 21) {
+            throw new IllegalStateException("camel.threads.virtual.enabled=true needs Java 21 or newer, running on Java " + Runtime.version());
+        }
+        if (!Boolean.getBoolean("camel.threads.virtual.enabled")) { //camel thread pools read only the jvm system property
+            throw new IllegalStateException("camel.threads.virtual.enabled must be set as a JVM system property (-Dcamel.threads.virtual.enabled=true)");
+        }
+    }
+
+    //context of a stored W3C traceparent- spans started while it is current join that trace
+    private Context traceContext(String traceParent) {
+        if (traceParent == null) {
+            return Context.current();
+        }
+        return openTelemetry.getPropagators().getTextMapPropagator().extract(Context.current(), traceParent, new TextMapGetter<>() {
+            @Override
+            public Iterable<String> keys(String carrier) {
+                return List.of("traceparent");
+            }
+
+            @Override
+            public String get(String carrier, String key) {
+                return "traceparent".equals(key) ? carrier : null;
+            }
+        });
+    }
+
+    //order.id on the span of the current route- traces of one order can be searched by it
+    static void tagOrderId(Exchange exchange) {
+        Order order = exchange.getProperty("order", Order.class);
+        SpanAdapter span = ActiveSpanManager.getSpan(exchange);
+        if (order != null && span != null) {
+            span.setTag("order.id", order.getOrderId());
+        }
+    }
+
+    //no room in seda:tailor for the orders of this request (one, or the array of bulk placeorder)
+    static boolean tailorQueueFull(SedaEndpoint tailorQueue, Object body) {
+        int orders = body instanceof Object[] array ? array.length : body instanceof Collection<?> list ? list.size() : 1;
+        return tailorQueue.getQueue().remainingCapacity() < Math.max(orders, 1);
+    }
 }
@@ -0,0 +1,93 @@
+package org.example.route;
+
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.Json;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.dto.OrderResponseDto;
+import org.example.model.OrderStage;
+import org.example.service.OrderStageHub;
+import org.example.service.OrderTrackingCache;
+
+import java.util.function.Consumer;
+
+/**
+ * GET /api/v1/trackorder/stream?orderId=.. - server-sent events with the current stage and every stage change.
+ * Served on the same vert.x router as platform-http; a subscriber is a callback on OrderStageHub, not a thread.
+ */
+@Slf4j
+@ApplicationScoped
+public class TrackOrderStream {
+
+    @Inject
+    OrderStageHub orderStageHub;
+
+    @Inject
+    OrderTrackingCache orderTrackingCache;
+
+    void init(@Observes Router router) {
+        router.get("/api/v1/trackorder/stream").handler(this::stream);
+    }
+
+    private void stream(RoutingContext ctx) {
+        String orderId = ctx.request().getParam("orderId");
+        if (orderId == null) {
+            ctx.response().setStatusCode(400).end("orderId is required");
+            return;
+        }
+
+        HttpServerResponse response = ctx.response()
+                .setChunked(true)
+                .putHeader("Content-Type", "text/event-stream")
+                .putHeader("Cache-Control", "no-cache");
+
+        StageEvents stageEvents = new StageEvents(response);
+        Runnable unsubscribe = orderStageHub.subscribe(orderId, stageEvents);
+        response.endHandler(v -> unsubscribe.run()); //last stage sent- also when the first event is already the last stage
+        response.closeHandler(v -> unsubscribe.run()); //client went away
+
+        OrderResponseDto cached = orderTrackingCache.getIfPresent(orderId);
+        if (cached != null) {
+            stageEvents.accept(cached);
+            return;
+        }
+        ctx.vertx().executeBlocking(() -> orderTrackingCache.get(orderId)) //cache miss- db, not on event loop
+                .onSuccess(stageEvents::accept)
+                .onFailure(e -> {
+                    unsubscribe.run();
+                    log.debug("order {} can not be tracked", orderId, e);
+                    if (!response.headWritten()) {
+                        response.setChunked(false).setStatusCode(404).end("Order with this id does not exist");
+                    } else if (!response.ended()) {
+                        response.end();
+                    }
+                });
+    }
+
+    //one sse event per stage, stream ends with the last stage- stage changes (stage workers) and the first read
+    //(event loop) can arrive in any order, a stage not newer than the last one sent is dropped
+    @RequiredArgsConstructor
+    private static class StageEvents implements Consumer<OrderResponseDto> {
+
+        private final HttpServerResponse response;
+        private OrderStage lastSent;
+
+        @Override
+        public synchronized void accept(OrderResponseDto orderResponseDto) {
+            OrderStage stage = OrderStage.valueOf(orderResponseDto.getStage());
+            if (response.ended() || response.closed() || (lastSent != null && stage.ordinal() <= lastSent.ordinal())) {
+                return;
+            }
+            lastSent = stage;
+            response.write("event: stage\ndata: " + Json.encode(orderResponseDto) + "\n\n");
+            if (stage.isFinal()) {
+                response.end();
+            }
+        }
+    }
+}
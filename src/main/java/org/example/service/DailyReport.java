@@ -0,0 +1,29 @@
+package org.example.service;
+
+import org.example.dto.OrderSummaryDto;
+
+/**
+ * Body of the daily completed-order mail, appended order by order into one StringBuilder.
+ */
+public class DailyReport {
+
+    private static final String HEADER = "Hello Sir,\n\nHere is the Order Details that have been Completed Today...";
+
+    private final StringBuilder body = new StringBuilder(HEADER);
+    private int count;
+
+    public void add(OrderSummaryDto order) {
+        body.append("\n\n").append(++count)
+                .append(". orderId = ").append(order.getOrderId())
+                .append("\n  tailorName= ").append(order.getTailorName())
+                .append("\n  fabric = ").append(order.getFabric());
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public String build() {
+        return body.toString();
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.service;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.example.dto.OrderSummaryDto;
+import org.example.repository.OrderRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Daily completed-order report of daily-update-scheduler-route. Orders are read page by page (keyset on
+ * orderCompleteTime and orderId), only one page is held in memory while the report grows.
+ */
+@ApplicationScoped
+public class DailyReportService {
+
+    @Inject
+    OrderRepository orderRepository;
+
+    @ConfigProperty(name = "order.report.page-size")
+    int pageSize;
+
+    //null- no order completed that day
+    public String completedOrderReport(LocalDate day) {
+        LocalDateTime to = day.plusDays(1).atStartOfDay(); //half-open day- up to the last microsecond before midnight
+
+        DailyReport report = new DailyReport();
+        LocalDateTime afterTime = day.atStartOfDay();
+        String afterOrderId = ""; //every orderId sorts after ""- orders completed at midnight are in
+        List<OrderSummaryDto> page;
+        do {
+            page = orderRepository.getCompletedOrderPage(afterTime, afterOrderId, to, pageSize); //projection- nothing kept in persistence context
+            page.forEach(report::add);
+            if (!page.isEmpty()) {
+                OrderSummaryDto last = page.get(page.size() - 1);
+                afterTime = last.getStageInTime(); //complete time
+                afterOrderId = last.getOrderId();
+            }
+        } while (page.size() == pageSize);
+
+        return report.isEmpty() ? null : report.build();
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.example.model.Fabric;
+import org.example.repository.FabricRepository;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Fabric catalog in memory: fabricName (case-insensitive) -> fabricId, so placing an order does not query fabrics.
+ * Loaded at startup and replaced as a whole by every refresh (fabric-catalog-sync-route).
+ */
+@Slf4j
+@ApplicationScoped
+public class FabricCatalog {
+
+    @Inject
+    FabricRepository fabricRepository;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private volatile Map<String, Long> fabricIdsByName = Map.of(); //fabricName(lowercase) -> fabricId, immutable
+    private Counter refreshCounter;
+    private Counter missCounter;
+
+    @PostConstruct
+    void init() {
+        refreshCounter = Counter.builder("fabric.catalog.refreshes")
+                .description("Fabric catalog reloads from db")
+                .register(meterRegistry);
+        missCounter = Counter.builder("fabric.catalog.misses")
+                .description("Fabric lookups for a fabric that does not exist")
+                .register(meterRegistry);
+        Gauge.builder("fabric.catalog.size", this, catalog -> catalog.fabricIdsByName.size())
+                .description("Fabrics in the catalog")
+                .register(meterRegistry);
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        refresh();
+    }
+
+    public void refresh() {
+        Map<String, Long> fabrics = new HashMap<>();
+        for (Fabric fabric : fabricRepository.getAllFabrics()) {
+            fabrics.put(key(fabric.getFabricName()), fabric.getFabricId());
+        }
+        fabricIdsByName = Map.copyOf(fabrics);
+        refreshCounter.increment();
+        log.info("fabric catalog refreshed, fabrics={}", fabrics.size());
+    }
+
+    //null if there is no such fabric
+    public Long getFabricId(String fabricName) {
+        Long fabricId = fabricName == null ? null : fabricIdsByName.get(key(fabricName));
+        if (fabricId == null) {
+            missCounter.increment();
+        }
+        return fabricId;
+    }
+
+    public boolean exists(String fabricName) {
+        return getFabricId(fabricName) != null;
+    }
+
+    private static String key(String fabricName) {
+        return fabricName.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,101 @@
+package org.example.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.context.Context;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.component.kafka.KafkaConstants;
+import org.apache.camel.support.DefaultMessage;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.example.model.Message;
+import org.example.model.OutboxMessage;
+import org.example.repository.OutboxRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transactional outbox for mail notifications: add() stores the message with the change it belongs to,
+ * relay() (outbox-relay-route) produces stored messages to kafka in batches and deletes them once the broker acked them.
+ * A failed batch is sent again, so a message is delivered at least once. The trace context of add() goes with the record.
+ */
+@Slf4j
+@ApplicationScoped
+public class NotificationOutbox {
+
+    static final String TRACE_PARENT = "traceparent";
+
+    @Inject
+    OutboxRepository outboxRepository;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    ProducerTemplate producerTemplate;
+
+    @Inject
+    CamelContext camelContext;
+
+    @Inject
+    OpenTelemetry openTelemetry;
+
+    @ConfigProperty(name = "outbox.relay.batch-size")
+    int batchSize;
+
+    @Transactional
+    public void add(Message message) throws JsonProcessingException {
+        OutboxMessage outboxMessage = new OutboxMessage();
+        outboxMessage.setMessageKey(message.getTo()); //same recipient- same partition, mails stay in order
+        outboxMessage.setPayload(objectMapper.writeValueAsString(message));
+        outboxMessage.setCreatedTime(LocalDateTime.now());
+        outboxMessage.setTraceParent(traceParent()); //consumer and mail spans join the trace of this change
+        outboxRepository.enqueue(outboxMessage);
+    }
+
+    //one batch, produced in id order as one exchange (kafka producer sends every element as a record)- returns messages relayed
+    @Transactional
+    public int relay() {
+        List<OutboxMessage> batch = outboxRepository.lockBatch(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<org.apache.camel.Message> records = new ArrayList<>(batch.size());
+        for (OutboxMessage outboxMessage : batch) {
+            org.apache.camel.Message record = new DefaultMessage(camelContext);
+            record.setHeader(KafkaConstants.KEY, outboxMessage.getMessageKey());
+            record.setBody(outboxMessage.getPayload());
+            if (outboxMessage.getTraceParent() != null) {
+                record.setHeader(TRACE_PARENT, outboxMessage.getTraceParent()); //kafka record header
+            }
+            records.add(record);
+        }
+
+        Exchange exchange = producerTemplate.send("direct:produce-to-kafka", e -> e.getIn().setBody(records)); //waits for the acks of the batch
+        if (exchange.getException() != null) { //batch stays in outbox, next run sends it again
+            log.warn("outbox batch of {} not produced to kafka: {}", batch.size(), exchange.getException().getMessage());
+            return 0;
+        }
+
+        outboxRepository.deleteByIds(batch.stream().map(OutboxMessage::getId).toList());
+        return batch.size();
+    }
+
+    //W3C traceparent of the current span (route or stage span), null when tracing is off
+    public String traceParent() {
+        Map<String, String> carrier = new HashMap<>();
+        openTelemetry.getPropagators().getTextMapPropagator().inject(Context.current(), carrier, Map::put);
+        return carrier.get(TRACE_PARENT);
+    }
+}
@@ -0,0 +1,126 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.camel.Exchange;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.example.model.Message;
+import org.example.model.Order;
+import org.example.model.OrderStage;
+import org.example.model.Tailor;
+import org.example.repository.OrderRepository;
+import org.example.repository.TailorRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Stage engine behind stage-engine-route: moves the order in exchange property "order" to its next {@link OrderStage}
+ * and stores the notification {@link Message} in the outbox in the same transaction (also put in the body).
+ */
+@Slf4j
+@ApplicationScoped
+public class OrderLifecycle {
+
+    @Inject
+    OrderRepository orderRepository;
+
+    @Inject
+    TailorRepository tailorRepository;
+
+    @Inject
+    TailorAvailabilityIndex tailorAvailabilityIndex;
+
+    @Inject
+    OrderTrackingCache orderTrackingCache;
+
+    @Inject
+    OrderStageHub orderStageHub;
+
+    @Inject
+    NotificationOutbox notificationOutbox;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private final Map<OrderStage, Duration> stageDurations = new EnumMap<>(OrderStage.class); //time an order spends in a stage
+    private final Map<OrderStage, Timer> stageTimers = new EnumMap<>(OrderStage.class); //time an order really spent in a stage
+
+    @PostConstruct
+    void init() {
+        for (OrderStage stage : OrderStage.values()) {
+            stageDurations.put(stage, ConfigProvider.getConfig()
+                    .getOptionalValue("order.stage.duration." + stage.getConfigKey(), Duration.class)
+                    .orElse(Duration.ZERO));
+            stageTimers.put(stage, Timer.builder("order.stage.time")
+                    .description("Time an order spent in a stage, from entering it to moving on")
+                    .tag("stage", stage.name())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    public void advance(Exchange exchange) {
+        Order order = exchange.getProperty("order", Order.class);
+        OrderStage stage = OrderStage.valueOf(order.getStage());
+        OrderStage next = stage.next();
+
+        if (next == null) {
+            log.warn("order {} is already in last stage {}", order.getOrderId(), stage);
+            exchange.setRouteStop(true);
+            return;
+        }
+
+        LocalDateTime stageInTime = LocalDateTime.now();
+        LocalDateTime nextStageTime = next.isFinal() ? null : stageInTime.plus(stageDurations.get(next)); //stage-scheduler-route moves it on
+        Message message = next.toMessage(order.getOrderId(), order.getUser().getEmail());
+        Tailor tailor = exchange.getProperty("tailor", Tailor.class);
+
+        //stage, tailor and notification are committed together- outbox-relay-route sends the notification to kafka
+        boolean moved = QuarkusTransaction.joiningExisting().call(() -> {
+            boolean updated = next.isFinal()
+                    ? orderRepository.completeOrder(order.getOrderId(), stage.name(), next.name(), stageInTime)
+                    : orderRepository.updateStage(order.getOrderId(), stage.name(), next.name(), stageInTime, nextStageTime);
+            if (updated) {
+                if (next.isFinal()) {
+                    tailorRepository.releaseTailor(tailor.getTailorId()); //tailor free now
+                }
+                notificationOutbox.add(message);
+            }
+            return updated;
+        });
+
+        if (!moved) { //somebody else moved this order already
+            log.warn("order {} is not in stage {}, {} skipped", order.getOrderId(), stage, next);
+            exchange.setRouteStop(true);
+            return;
+        }
+
+        LocalDateTime enteredStage = order.getStageInTime() != null ? order.getStageInTime() : order.getOrderAcceptTime(); //PLACED- accept time
+        if (enteredStage != null) {
+            stageTimers.get(stage).record(Duration.between(enteredStage, stageInTime));
+        }
+
+        order.setStage(next.name());
+        order.setStageInTime(stageInTime);
+        order.setNextStageTime(nextStageTime);
+        orderStageHub.publish(orderTrackingCache.update(order)); //trackorder sees new stage without db, streams get it pushed
+
+        if (next.isFinal()) {
+            order.setCompleted(true);
+            order.setOrderCompleteTime(stageInTime);
+
+            tailor.setOrderId(null);
+            tailorAvailabilityIndex.release(tailor.getTailorId()); //tailor free in index
+        }
+
+        exchange.getIn().setBody(message);
+    }
+}
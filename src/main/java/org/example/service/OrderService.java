@@ -1,23 +1,33 @@
 package org.example.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.camel.Exchange;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.example.dto.OrderDto;
 import org.example.dto.OrderResponseDto;
 import org.example.model.Fabric;
 import org.example.model.Order;
+import org.example.model.OrderStage;
 import org.example.model.Person;
 import org.example.model.Tailor;
-import org.example.repository.FabricRepository;
 import org.example.repository.OrderRepository;
 import org.example.repository.PersonRepository;
 import org.example.repository.TailorRepository;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 
 
@@ -25,11 +35,13 @@ import java.util.*;
 @ApplicationScoped
 public class OrderService {
 
+    public static final String ORDER_QUEUE_FULL = "Too many orders right now, please try again later";
+
     @Inject
     PersonRepository personRepository;
 
     @Inject
-    FabricRepository fabricRepository;
+    FabricCatalog fabricCatalog;
 
     @Inject
     TailorRepository tailorRepository;
@@ -37,9 +49,27 @@ public class OrderService {
     @Inject
     OrderRepository orderRepository;
 
+    @Inject
+    TailorAvailabilityIndex tailorAvailabilityIndex;
+
+    @Inject
+    OrderTrackingCache orderTrackingCache;
+
     @Inject
     EntityManager entityManager;
 
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Inject
+    NotificationOutbox notificationOutbox;
+
+    @ConfigProperty(name = "order.bulk.max-size")
+    int bulkMaxSize;
+
+    @ConfigProperty(name = "order.stage.duration.placed")
+    Duration placedStageDuration;
+
     @Transactional
     public void validateOrder(Exchange exchange) {
         OrderDto orderDto = exchange.getIn().getBody(OrderDto.class); //exchange ke object se body get krna
@@ -50,57 +80,49 @@ public class OrderService {
 
 
         if (person == null) {
+            reject("unknown-person");
             exchange.getIn().setBody("Person with this id does not exist");
             exchange.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, 404);
             return;
         }
 
-        if (fabricRepository.getFabricByName(orderDto.getFabric()) == 0) { //get Matched Fabric
+        if (!fabricCatalog.exists(orderDto.getFabric())) { //get Matched Fabric- in memory
+            reject("unknown-fabric");
             exchange.getIn().setBody("This fabric does not exist");
             exchange.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, 404);
             return;
         }
 
-        List<Tailor> tailorList = tailorRepository.getAvailableTailor();
-
-        if(tailorList.isEmpty()){ //if all tailors are occupied- no tailor is empty/free
+        if(!tailorAvailabilityIndex.hasFreeTailor()){ //if all tailors are occupied- no tailor is empty/free
+            reject("no-tailor");
             exchange.getIn().setBody("No Tailor is Available Now");
             exchange.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, 404);
             return;
         }
 
-        Tailor tailor = null;
-
-        for(Tailor tailor1 : tailorList){ //check fabric from list of tailor
-            if(tailor1.getFabrics()
-                    .stream()
-                    .map(d-> d.getFabricName())
-                    .anyMatch(d-> d.equalsIgnoreCase(orderDto.getFabric()))){
-                tailor = tailor1; //assign tailor to variable
-                break;
-            }
-        }
+        String orderId = UUID.randomUUID().toString(); //32-digit unique no
+        Long tailorId = claimTailor(orderDto.getFabric(), orderId);
+        Tailor tailor = tailorId == null ? null : tailorRepository.findById(tailorId); //assign tailor to variable
 
         if (tailor==null) {
+            reject("no-tailor-for-fabric");
             exchange.getIn().setBody("No tailor have this fabric");
             exchange.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, 404);
             return;
         }
 
         Order order = new Order();
-        order.setOrderId(UUID.randomUUID().toString()); //32-digit unique no
+        order.setOrderId(orderId);
         order.setUser(person);
         order.setOrderAcceptTime(LocalDateTime.now());
+        order.setNextStageTime(order.getOrderAcceptTime().plus(placedStageDuration)); //seda:tailor hand-off lost- stage-scheduler-route confirms it
+        order.setTraceParent(notificationOutbox.traceParent()); //stage-scheduler-route moves it on in this trace
         order.setFabric(orderDto.getFabric());
-        order.setStage("PLACED");
+        order.setStage(OrderStage.PLACED.name());
         order.setTailor(tailor);
 
-        tailor.setOrderId(order.getOrderId()); //tailor occupied
-
         orderRepository.persist(order); //save to db
 
-        entityManager.merge(tailor); //updated to db - tailor occupied
-
         exchange.setProperty("order", order);
         exchange.setProperty("tailor", tailor);
 
@@ -111,16 +133,234 @@ public class OrderService {
         exchange.getIn().setBody(map);
     }
 
+    //bulk placeorder- persons and tailors are loaded with one query each, fabrics come from the catalog, orders are inserted in one jdbc batch
     @Transactional
+    public void validateOrders(Exchange exchange) {
+        List<OrderDto> orderDtoList = toOrderDtoList(exchange.getIn().getBody());
+        if (orderDtoList.size() > bulkMaxSize) { //one transaction per request- keep it short
+            exchange.setProperty("orders", List.of());
+            exchange.getIn().setBody("Too many orders in one request, at most " + bulkMaxSize);
+            exchange.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, 413);
+            return;
+        }
+        if (orderDtoList.contains(null)) { //[{...}, null]- nothing to answer per item
+            exchange.setProperty("orders", List.of());
+            exchange.getIn().setBody("Order list must not contain null");
+            exchange.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, 400);
+            return;
+        }
+
+        Set<Long> personIds = new HashSet<>();
+        for (OrderDto orderDto : orderDtoList) {
+            personIds.add(orderDto.getPersonId());
+        }
+
+        Map<Long, Person> personMap = new HashMap<>();
+        Set<Long> orderedPersonIds = new HashSet<>(); //customers with an order- saved already or earlier in this request
+        if (!personIds.isEmpty()) {
+            for (Person person : personRepository.getPersonsByIds(personIds)) {
+                personMap.put(person.getUserId(), person);
+            }
+            orderedPersonIds.addAll(orderRepository.getPersonIdsWithOrder(personIds));
+        }
+
+        List<Map<String, Object>> resultList = new ArrayList<>(); //display to postman- one result per order
+        Map<Integer, Order> orderMap = new LinkedHashMap<>(); //index -> order waiting for its tailor entity
+        Map<Integer, Long> tailorIdMap = new HashMap<>(); //index -> claimed tailorId
+
+        for (int i = 0; i < orderDtoList.size(); i++) {
+            OrderDto orderDto = orderDtoList.get(i);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("index", i);
+            resultList.add(result);
+
+            Person person = personMap.get(orderDto.getPersonId());
+            if (person == null) {
+                reject("unknown-person");
+                result.put("status", "Person with this id does not exist");
+                result.put("code", 404);
+                continue;
+            }
+
+            if (!orderedPersonIds.add(person.getUserId())) { //one order per customer (user_userId is unique)- would fail the whole batch on commit
+                reject("duplicate-person");
+                result.put("status", "Person already has an order");
+                result.put("code", 409);
+                continue;
+            }
+
+            if (!fabricCatalog.exists(orderDto.getFabric())) {
+                reject("unknown-fabric");
+                result.put("status", "This fabric does not exist");
+                result.put("code", 404);
+                continue;
+            }
+
+            if (!tailorAvailabilityIndex.hasFreeTailor()) {
+                reject("no-tailor");
+                result.put("status", "No Tailor is Available Now");
+                result.put("code", 404);
+                continue;
+            }
+
+            String orderId = UUID.randomUUID().toString();
+            Long tailorId = claimTailor(orderDto.getFabric(), orderId);
+            if (tailorId == null) {
+                reject("no-tailor-for-fabric");
+                result.put("status", "No tailor have this fabric");
+                result.put("code", 404);
+                continue;
+            }
+
+            Order order = new Order();
+            order.setOrderId(orderId);
+            order.setUser(person);
+            order.setOrderAcceptTime(LocalDateTime.now());
+            order.setNextStageTime(order.getOrderAcceptTime().plus(placedStageDuration));
+            order.setTraceParent(notificationOutbox.traceParent());
+            order.setFabric(orderDto.getFabric());
+            order.setStage(OrderStage.PLACED.name());
+
+            orderMap.put(i, order);
+            tailorIdMap.put(i, tailorId);
+
+            result.put("status", "order placed successfully");
+            result.put("orderId", orderId);
+        }
+
+        List<Order> orderList = new ArrayList<>();
+        if (!orderMap.isEmpty()) {
+            Map<Long, Tailor> tailorMap = new HashMap<>();
+            for (Tailor tailor : tailorRepository.getTailorsByIds(tailorIdMap.values())) { //claimed tailors in one query
+                tailorMap.put(tailor.getTailorId(), tailor);
+            }
+            for (Map.Entry<Integer, Order> entry : orderMap.entrySet()) {
+                Order order = entry.getValue();
+                order.setTailor(tailorMap.get(tailorIdMap.get(entry.getKey())));
+                orderList.add(order);
+            }
+            orderRepository.persist(orderList); //batched insert on commit
+        }
+
+        Map<String, Map<String, Object>> resultByOrderId = new HashMap<>();
+        for (Map<String, Object> result : resultList) {
+            if (result.containsKey("orderId")) {
+                resultByOrderId.put((String) result.get("orderId"), result);
+            }
+        }
+
+        exchange.setProperty("orders", orderList); //each placed order goes to seda:tailor
+        exchange.setProperty("orderResults", resultByOrderId); //result can be changed if seda:tailor is full
+        exchange.getIn().setBody(resultList);
+    }
+
+    //seda:tailor is full- undo the placed order so the tailor can take another one
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public void cancelPlacedOrder(Exchange exchange) {
+        Order order = exchange.getProperty("order", Order.class);
+        Tailor tailor = exchange.getProperty("tailor", Tailor.class);
+        if (order == null || tailor == null) { //nothing placed
+            return;
+        }
+
+        orderRepository.deleteOrder(order.getOrderId());
+        orderTrackingCache.invalidate(order.getOrderId()); //tracked before it was cancelled
+        tailorRepository.releaseTailor(tailor.getTailorId());
+        tailorAvailabilityIndex.release(tailor.getTailorId());
+
+        reject("queue-full");
+        log.warn("tailor queue is full, order {} cancelled", order.getOrderId());
+
+        Map<String, Map<String, Object>> resultByOrderId = exchange.getProperty("orderResults", Map.class);
+        if (resultByOrderId != null) { //bulk placeorder
+            Map<String, Object> result = resultByOrderId.get(order.getOrderId());
+            result.remove("orderId");
+            result.put("status", ORDER_QUEUE_FULL);
+            result.put("code", 503);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<OrderDto> toOrderDtoList(Object body) {
+        if (body instanceof OrderDto[] orderDtos) {
+            return Arrays.asList(orderDtos);
+        }
+        if (body instanceof List<?> list) {
+            return (List<OrderDto>) list;
+        }
+        return List.of();
+    }
+
+    //placeorder answered without an order- order.rejections{reason} on /q/metrics
+    public void reject(String reason) {
+        Counter.builder("order.rejections")
+                .description("Orders rejected by placeorder")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    //free tailor with this fabric from index, occupied in db with a conditional update- null if no tailor could be claimed
+    private Long claimTailor(String fabric, String orderId) {
+        Long tailorId;
+        while ((tailorId = tailorAvailabilityIndex.claim(fabric)) != null) {
+            if (tailorRepository.claimTailor(tailorId, orderId)) { //tailor occupied
+                tailorAvailabilityIndex.releaseOnRollback(tailorId); //order not saved- tailor back in index
+                return tailorId;
+            }
+            log.warn("tailor {} is not free in db, trying next one", tailorId);
+        }
+        return null;
+    }
+
     public void getOrderById(Exchange exchange){
         String orderId = exchange.getIn().getHeader("orderId", String.class);
-        Order order =  orderRepository.getOrderById(orderId); //ef5bb391-dcd7-4480-8351-750c1628994a
+        OrderResponseDto orderResponseDto = orderTrackingCache.getIfPresent(orderId); //in memory- no db
+        if (orderResponseDto == null) {
+            orderResponseDto = orderTrackingCache.get(orderId); //cache miss- load from db
+        }
+
+        String eTag = eTag(orderResponseDto);
+        String lastModified = orderResponseDto.getStageInTime() == null ? null
+                : DateTimeFormatter.RFC_1123_DATE_TIME.format(orderResponseDto.getStageInTime().atZone(ZoneId.systemDefault()).withZoneSameInstant(ZoneOffset.UTC)); //http dates are GMT
 
-        OrderResponseDto orderResponseDto = new OrderResponseDto(); //display to postman- get
-        orderResponseDto.setOrderId(order.getOrderId());
-        orderResponseDto.setFabric(order.getFabric());
-        orderResponseDto.setStage(order.getStage());
+        exchange.getIn().setHeader("ETag", eTag);
+        exchange.getIn().setHeader("Last-Modified", lastModified);
+
+        if (isNotModified(exchange, eTag, orderResponseDto.getStageInTime())) { //client has this stage already
+            exchange.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, 304);
+            exchange.getIn().setBody(null);
+            return;
+        }
 
         exchange.getIn().setBody(orderResponseDto);
     }
+
+    //ETag changes only when the order changes stage- stage and the millis it entered it, no hash collisions
+    static String eTag(OrderResponseDto orderResponseDto) {
+        long stageInMillis = orderResponseDto.getStageInTime() == null ? 0
+                : orderResponseDto.getStageInTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return "\"" + orderResponseDto.getStage() + "-" + stageInMillis + "\"";
+    }
+
+    private boolean isNotModified(Exchange exchange, String eTag, LocalDateTime stageInTime) {
+        String ifNoneMatch = exchange.getIn().getHeader("If-None-Match", String.class);
+        if (ifNoneMatch != null) { //If-None-Match wins over If-Modified-Since
+            return ifNoneMatch.equals("*") || Arrays.stream(ifNoneMatch.split(","))
+                    .map(String::trim)
+                    .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag) //weak comparison- proxies may weaken the ETag
+                    .anyMatch(eTag::equals);
+        }
+        String ifModifiedSince = exchange.getIn().getHeader("If-Modified-Since", String.class);
+        if (ifModifiedSince == null || stageInTime == null) {
+            return false;
+        }
+        try {
+            ZonedDateTime since = ZonedDateTime.parse(ifModifiedSince, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return !stageInTime.atZone(ZoneId.systemDefault()).truncatedTo(ChronoUnit.SECONDS).isAfter(since);
+        } catch (DateTimeParseException e) {
+            return false; //invalid date- ignore header
+        }
+    }
 }
\ No newline at end of file
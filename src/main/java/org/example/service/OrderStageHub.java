@@ -0,0 +1,60 @@
+package org.example.service;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import lombok.extern.slf4j.Slf4j;
+import org.example.dto.OrderResponseDto;
+import org.example.model.OrderStage;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * In-process fan-out of stage changes by orderId. Subscribers are callbacks, no thread is held per subscriber;
+ * they are dropped once the order reaches its last stage.
+ */
+@Slf4j
+@ApplicationScoped
+public class OrderStageHub {
+
+    private final Map<String, Set<Consumer<OrderResponseDto>>> subscribers = new ConcurrentHashMap<>(); //orderId -> subscribers
+
+    //returns the action that unsubscribes
+    public Runnable subscribe(String orderId, Consumer<OrderResponseDto> subscriber) {
+        subscribers.compute(orderId, (id, set) -> {
+            Set<Consumer<OrderResponseDto>> orderSubscribers = set == null ? ConcurrentHashMap.newKeySet() : set;
+            orderSubscribers.add(subscriber);
+            return orderSubscribers;
+        });
+        return () -> unsubscribe(orderId, subscriber);
+    }
+
+    private void unsubscribe(String orderId, Consumer<OrderResponseDto> subscriber) {
+        subscribers.computeIfPresent(orderId, (id, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    public void publish(OrderResponseDto orderResponseDto) {
+        boolean lastStage = OrderStage.valueOf(orderResponseDto.getStage()).isFinal();
+        Set<Consumer<OrderResponseDto>> orderSubscribers = lastStage
+                ? subscribers.remove(orderResponseDto.getOrderId()) //no more changes for this order
+                : subscribers.get(orderResponseDto.getOrderId());
+        if (orderSubscribers == null) {
+            return;
+        }
+        for (Consumer<OrderResponseDto> subscriber : orderSubscribers) {
+            try {
+                subscriber.accept(orderResponseDto);
+            } catch (RuntimeException e) {
+                log.warn("stage subscriber of order {} failed", orderResponseDto.getOrderId(), e);
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.service;
+
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
+import io.quarkus.cache.CaffeineCache;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.example.dto.OrderResponseDto;
+import org.example.model.Order;
+import org.example.repository.OrderRepository;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Cache-aside for trackorder: OrderResponseDto by orderId, bounded by size and ttl (quarkus.cache.caffeine."order-tracking").
+ * The stage engine writes every stage change into it, so tracking reads rarely reach the db.
+ */
+@ApplicationScoped
+public class OrderTrackingCache {
+
+    @Inject
+    @CacheName("order-tracking")
+    Cache cache;
+
+    @Inject
+    OrderRepository orderRepository;
+
+    //cached response only- null if not cached, never reads db
+    public OrderResponseDto getIfPresent(String orderId) {
+        CompletableFuture<OrderResponseDto> cached = cache.as(CaffeineCache.class).getIfPresent(orderId);
+        return cached == null ? null : cached.getNow(null);
+    }
+
+    public OrderResponseDto get(String orderId) {
+        return cache.get(orderId, id -> toOrderResponseDto(orderRepository.getOrderById(id))).await().indefinitely();
+    }
+
+    //order changed stage- replace cached entry
+    public OrderResponseDto update(Order order) {
+        OrderResponseDto orderResponseDto = toOrderResponseDto(order);
+        cache.as(CaffeineCache.class).put(order.getOrderId(), CompletableFuture.completedFuture(orderResponseDto));
+        return orderResponseDto;
+    }
+
+    //order removed (placement cancelled)- trackorder must not answer from memory
+    public void invalidate(String orderId) {
+        cache.invalidate(orderId).await().indefinitely();
+    }
+
+    public static OrderResponseDto toOrderResponseDto(Order order) {
+        OrderResponseDto orderResponseDto = new OrderResponseDto(); //display to postman- get
+        orderResponseDto.setOrderId(order.getOrderId());
+        orderResponseDto.setFabric(order.getFabric());
+        orderResponseDto.setStage(order.getStage());
+        orderResponseDto.setStageInTime(order.getStageInTime());
+        return orderResponseDto;
+    }
+}
@@ -0,0 +1,175 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.camel.component.mail.DefaultJavaMailSender;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Properties;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+
+/**
+ * Mail sender of send-mail-route (javaMailSender=#pooledMailSender). Keeps up to mail.sender.pool.size SMTP sessions
+ * open and sends many mails per session instead of one connect and TLS handshake per mail.
+ * A session is reopened after max-messages-per-session mails, after idle-timeout or when a send fails- a mail that
+ * fails on a reused session is sent once more on a new one, the server may have dropped the idle connection.
+ */
+@Slf4j
+@ApplicationScoped
+@Named("pooledMailSender")
+public class PooledJavaMailSender extends DefaultJavaMailSender {
+
+    @ConfigProperty(name = "mail.sender.protocol")
+    String mailProtocol;
+    @ConfigProperty(name = "mail.sender.host")
+    String mailHost;
+    @ConfigProperty(name = "mail.sender.port")
+    int mailPort;
+    @ConfigProperty(name = "mail.sender.username")
+    String mailUsername;
+    @ConfigProperty(name = "mail.sender.password")
+    String mailPassword;
+    @ConfigProperty(name = "mail.sender.pool.size")
+    int poolSize;
+    @ConfigProperty(name = "mail.sender.pool.max-messages-per-session")
+    int maxMessagesPerSession;
+    @ConfigProperty(name = "mail.sender.pool.idle-timeout")
+    Duration idleTimeout;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    //last used session first- a quiet pool keeps using one warm connection
+    private final BlockingDeque<SmtpSession> sessions = new LinkedBlockingDeque<>();
+    private Timer sendTimer;
+    private Counter sessionCounter;
+
+    @PostConstruct
+    void init() {
+        setProtocol(mailProtocol);
+        setHost(mailHost);
+        setPort(mailPort);
+        setUsername(mailUsername);
+        setPassword(mailPassword);
+
+        Properties properties = new Properties();
+        properties.setProperty("mail." + mailProtocol + ".auth", "true");
+        properties.setProperty("mail." + mailProtocol + ".connectiontimeout", "10000");
+        properties.setProperty("mail." + mailProtocol + ".timeout", "30000");
+        setJavaMailProperties(properties);
+
+        for (int i = 0; i < poolSize; i++) {
+            sessions.add(new SmtpSession());
+        }
+
+        sendTimer = Timer.builder("mail.send")
+                .description("Time to send one mail over a pooled SMTP session")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        sessionCounter = Counter.builder("mail.smtp.sessions")
+                .description("SMTP sessions opened")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void send(MimeMessage mimeMessage) throws MessagingException {
+        SmtpSession session;
+        try {
+            session = sessions.takeFirst(); //all sessions busy- wait for one
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("interrupted while waiting for a SMTP session", e);
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            session.send(mimeMessage);
+        } finally {
+            sample.stop(sendTimer);
+            sessions.offerFirst(session);
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        sessions.forEach(SmtpSession::close);
+    }
+
+    //one connected transport, used by one thread at a time
+    private class SmtpSession {
+        private Transport transport;
+        private int sent;
+        private long lastUsed;
+
+        void send(MimeMessage mimeMessage) throws MessagingException {
+            boolean reused = transport != null && transport.isConnected() && sent < maxMessagesPerSession
+                    && System.currentTimeMillis() - lastUsed <= idleTimeout.toMillis();
+            if (!reused) {
+                reconnect();
+            }
+            if (mimeMessage.getSentDate() == null) {
+                mimeMessage.setSentDate(new Date());
+            }
+            mimeMessage.saveChanges();
+            try {
+                sendMessage(mimeMessage);
+            } catch (SendFailedException e) {
+                close(); //server refused the mail or its recipients- a new session gets the same answer
+                throw e;
+            } catch (MessagingException e) {
+                close(); //connection state unknown
+                if (!reused) {
+                    throw e;
+                }
+                //server closed the pooled connection (idle, restart) though isConnected() still said yes- once on a new one
+                log.debug("pooled SMTP session failed, sending on a new session", e);
+                reconnect();
+                try {
+                    sendMessage(mimeMessage);
+                } catch (MessagingException retryFailed) {
+                    close();
+                    throw retryFailed;
+                }
+            }
+        }
+
+        private void sendMessage(MimeMessage mimeMessage) throws MessagingException {
+            transport.sendMessage(mimeMessage, mimeMessage.getAllRecipients());
+            sent++;
+            lastUsed = System.currentTimeMillis();
+        }
+
+        private void reconnect() throws MessagingException {
+            close();
+            transport = getSession().getTransport(getProtocol());
+            transport.connect(getHost(), getPort(), getUsername(), getPassword());
+            sessionCounter.increment();
+            sent = 0;
+        }
+
+        void close() {
+            if (transport == null) {
+                return;
+            }
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.debug("SMTP session not closed cleanly", e);
+            }
+            transport = null;
+        }
+    }
+}
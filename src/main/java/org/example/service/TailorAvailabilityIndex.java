@@ -0,0 +1,207 @@
+package org.example.service;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.model.Fabric;
+import org.example.model.Tailor;
+import org.example.repository.TailorRepository;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * In-memory fabric -> free tailor index, so placing an order does not scan the tailor table.
+ * Warmed from the db at startup and reconciled with it periodically (tailor-index-sync-route).
+ */
+@Slf4j
+@ApplicationScoped
+public class TailorAvailabilityIndex {
+
+    @Inject
+    TailorRepository tailorRepository;
+
+    @Inject
+    TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+    private final Map<String, Set<Long>> freeTailorsByFabric = new ConcurrentHashMap<>(); //fabricName(lowercase) -> free tailorIds
+    private final Map<Long, List<String>> fabricsByTailor = new ConcurrentHashMap<>(); //tailorId -> fabricNames(lowercase)
+    private final Set<Long> freeTailors = ConcurrentHashMap.newKeySet();
+    //claim/release/remove of a tailor and reconcile of it run under the tailor's lock; changedAt says whether the index
+    //changed the tailor after reconcile started reading the db
+    private final AtomicLong changes = new AtomicLong();
+    private final Map<Long, Long> changedAt = new ConcurrentHashMap<>(); //tailorId -> changes after its last change
+    private final Object[] locks = Stream.generate(Object::new).limit(64).toArray();
+
+    void onStart(@Observes StartupEvent event) {
+        reconcile();
+    }
+
+    //re-read all tailors from db and bring the index in line with it- a tailor the index claimed or released while
+    //the db was read keeps its newer state until the next run
+    public void reconcile() {
+        long readAt = changes.get();
+        List<Tailor> tailorList = tailorRepository.getAllTailorWithFabrics();
+        Set<Long> tailorIds = new HashSet<>();
+
+        for (Tailor tailor : tailorList) {
+            long tailorId = tailor.getTailorId();
+            tailorIds.add(tailorId);
+            List<String> fabrics = tailor.getFabrics()
+                    .stream()
+                    .map(Fabric::getFabricName)
+                    .map(TailorAvailabilityIndex::key)
+                    .toList();
+
+            synchronized (lock(tailorId)) {
+                if (changedSince(tailorId, readAt)) {
+                    continue;
+                }
+                List<String> previous = fabricsByTailor.put(tailorId, fabrics);
+                if (previous != null && !previous.equals(fabrics) && freeTailors.remove(tailorId)) {
+                    removeFromFabrics(tailorId, previous); //fabrics changed- added again below with the new ones
+                }
+
+                if (tailor.getOrderId() == null) {
+                    markFree(tailorId); //tailor is free
+                } else {
+                    markBusy(tailorId); //tailor is occupied
+                }
+            }
+        }
+
+        for (Long tailorId : fabricsByTailor.keySet()) {
+            if (!tailorIds.contains(tailorId)) { //tailor deleted in db
+                synchronized (lock(tailorId)) {
+                    if (changedSince(tailorId, readAt)) {
+                        continue;
+                    }
+                    markBusy(tailorId);
+                    fabricsByTailor.remove(tailorId);
+                    changedAt.remove(tailorId);
+                }
+            }
+        }
+        log.info("tailor availability index reconciled, tailors={}, free={}", tailorList.size(), freeTailors.size());
+    }
+
+    //take a free tailor who works with this fabric, null if there is none
+    public Long claim(String fabric) {
+        Set<Long> candidates = freeTailorsByFabric.get(key(fabric));
+        if (candidates == null) {
+            return null;
+        }
+        for (Long tailorId : candidates) {
+            synchronized (lock(tailorId)) {
+                if (freeTailors.remove(tailorId)) { //only one caller can win a tailor
+                    removeFromFabrics(tailorId, fabricsByTailor.get(tailorId));
+                    changed(tailorId);
+                    return tailorId;
+                }
+            }
+        }
+        return null;
+    }
+
+    //tailor claimed from the index and occupied in db- if that transaction does not commit the tailor is free again
+    public void releaseOnRollback(long tailorId) {
+        if (transactionSynchronizationRegistry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            return; //no transaction- nothing rolls back
+        }
+        transactionSynchronizationRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != Status.STATUS_COMMITTED) {
+                    release(tailorId);
+                }
+            }
+        });
+    }
+
+    //tailor is free again
+    public void release(long tailorId) {
+        synchronized (lock(tailorId)) {
+            markFree(tailorId);
+            changed(tailorId);
+        }
+    }
+
+    //tailor is no longer free (occupied in db)
+    public void remove(long tailorId) {
+        synchronized (lock(tailorId)) {
+            markBusy(tailorId);
+            changed(tailorId);
+        }
+    }
+
+    public boolean hasFreeTailor() {
+        return !freeTailors.isEmpty();
+    }
+
+    public int freeTailorCount() {
+        return freeTailors.size();
+    }
+
+    public int tailorCount() {
+        return fabricsByTailor.size();
+    }
+
+    private void markFree(long tailorId) {
+        List<String> fabrics = fabricsByTailor.get(tailorId);
+        if (fabrics == null || !freeTailors.add(tailorId)) { //unknown tailor or already free
+            return;
+        }
+        for (String fabric : fabrics) {
+            freeTailorsByFabric.computeIfAbsent(fabric, k -> ConcurrentHashMap.newKeySet()).add(tailorId);
+        }
+    }
+
+    private void markBusy(long tailorId) {
+        if (freeTailors.remove(tailorId)) {
+            removeFromFabrics(tailorId, fabricsByTailor.get(tailorId));
+        }
+    }
+
+    private void changed(long tailorId) {
+        changedAt.put(tailorId, changes.incrementAndGet());
+    }
+
+    private boolean changedSince(long tailorId, long readAt) {
+        return changedAt.getOrDefault(tailorId, 0L) > readAt;
+    }
+
+    private Object lock(long tailorId) {
+        return locks[Math.floorMod(tailorId, locks.length)];
+    }
+
+    private void removeFromFabrics(long tailorId, List<String> fabrics) {
+        if (fabrics == null) {
+            return;
+        }
+        for (String fabric : fabrics) {
+            Set<Long> tailorIds = freeTailorsByFabric.get(fabric);
+            if (tailorIds != null) {
+                tailorIds.remove(tailorId);
+            }
+        }
+    }
+
+    private static String key(String fabricName) {
+        return fabricName == null ? "" : fabricName.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,6 @@
+-- Due time of the current stage, read by stage-scheduler-route (getDueOrders). Databases baselined at version 1 do not
+-- have the column yet. Their open orders become due at once, so the scheduler moves them on.
+alter table Orders add column if not exists nextStageTime timestamp(6);
+
+update Orders set nextStageTime = coalesce(stageInTime, orderAcceptTime, now())
+where isCompleted = false and nextStageTime is null;
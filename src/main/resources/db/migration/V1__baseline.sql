@@ -0,0 +1,56 @@
+-- Schema as hibernate (database.generation=update) created it before migrations.
+-- Databases created that way are baselined at version 1 (quarkus.flyway.baseline-on-migrate) and skip this script.
+
+create table Role (
+    roleId bigint generated by default as identity,
+    roleName varchar(255),
+    primary key (roleId)
+);
+
+create table Person (
+    userId bigint generated by default as identity,
+    email varchar(255),
+    firstName varchar(255),
+    lastName varchar(255),
+    role_roleId bigint unique,
+    primary key (userId)
+);
+
+create table Fabric (
+    fabricId bigint generated by default as identity,
+    fabricName varchar(255),
+    primary key (fabricId)
+);
+
+create table Tailor (
+    tailorId bigint generated by default as identity,
+    orderId varchar(255),
+    tailorName varchar(255),
+    manager_userId bigint,
+    primary key (tailorId)
+);
+
+create table Tailor_Fabric (
+    Tailor_tailorId bigint not null,
+    fabrics_fabricId bigint not null
+);
+
+create table Orders (
+    orderId varchar(255) not null,
+    fabric varchar(255),
+    isCompleted boolean not null,
+    orderAcceptTime timestamp(6),
+    orderCompleteTime timestamp(6),
+    stage varchar(255),
+    stageInTime timestamp(6),
+    tailor_tailorid bigint not null,
+    user_userId bigint unique,
+    primary key (orderId)
+);
+
+alter table Person add constraint fk_person_role foreign key (role_roleId) references Role;
+alter table Tailor add constraint fk_tailor_manager foreign key (manager_userId) references Person;
+alter table Tailor_Fabric add constraint fk_tailor_fabric_fabric foreign key (fabrics_fabricId) references Fabric;
+alter table Tailor_Fabric add constraint fk_tailor_fabric_tailor foreign key (Tailor_tailorId) references Tailor;
+alter table Orders add constraint fk_orders_tailor foreign key (tailor_tailorid) references Tailor;
+alter table Orders add constraint fk_orders_user foreign key (user_userId) references Person;
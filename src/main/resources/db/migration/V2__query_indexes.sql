@@ -0,0 +1,16 @@
+-- Indexes for the predicates of the hot queries.
+
+-- free tailors: getAvailableTailor (orderId IS NULL), only free tailors are in the index
+create index idx_tailor_free on Tailor (tailorId) where orderId is null;
+
+-- stuck orders: getAllDelayedOrder (isCompleted=false and stageInTime<?)
+create index idx_orders_completed_stage_in_time on Orders (isCompleted, stageInTime);
+
+-- daily report: getCompletedOrderPage (orderCompleteTime BETWEEN ?)
+create index idx_orders_complete_time on Orders (orderCompleteTime);
+
+-- stage-scheduler-route: getDueOrders (isCompleted=false and nextStageTime<=? order by nextStageTime)
+create index idx_orders_due on Orders (nextStageTime) where isCompleted = false;
+
+-- one row per fabric name regardless of case- FabricCatalog matches names case-insensitively
+create unique index uk_fabric_name on Fabric (lower(fabricName));
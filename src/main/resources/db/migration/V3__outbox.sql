@@ -0,0 +1,8 @@
+-- Notifications waiting for outbox-relay-route, oldest (lowest id) first.
+create table OutboxMessage (
+    id bigint generated by default as identity,
+    messageKey varchar(255),
+    payload text not null,
+    createdTime timestamp(6),
+    primary key (id)
+);
@@ -0,0 +1,2 @@
+-- Trace context of the change a notification belongs to, relayed as kafka record header.
+alter table OutboxMessage add column traceParent varchar(255);
@@ -0,0 +1,4 @@
+-- daily report: getCompletedOrderPage keyset ((orderCompleteTime, orderId) > ? order by orderCompleteTime, orderId),
+-- a page is read from where the last one ended; replaces the single column index
+create index idx_orders_complete_time_order_id on Orders (orderCompleteTime, orderId);
+drop index if exists idx_orders_complete_time;
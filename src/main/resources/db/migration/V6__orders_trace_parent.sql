@@ -0,0 +1,2 @@
+-- Trace context of the placeorder request- stage-scheduler-route moves the order on inside this trace.
+alter table Orders add column traceParent varchar(255);
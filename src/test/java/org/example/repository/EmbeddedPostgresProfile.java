@@ -0,0 +1,24 @@
+package org.example.repository;
+
+import io.quarkus.test.junit.QuarkusTestProfile;
+
+import java.util.List;
+import java.util.Map;
+
+//app on an embedded postgres, mail-topic kept in the jvm- no kafka needed; stage-scheduler-route does not tick,
+//so tests see the rows they wrote
+public class EmbeddedPostgresProfile implements QuarkusTestProfile {
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        return Map.of(
+                "mail.topic.producer", "mock:mail-topic",
+                "mail.topic.consumer", "seda:mail-topic",
+                "order.stage.scheduler.period", "3600000");
+    }
+
+    @Override
+    public List<TestResourceEntry> testResources() {
+        return List.of(new TestResourceEntry(EmbeddedPostgresResource.class));
+    }
+}
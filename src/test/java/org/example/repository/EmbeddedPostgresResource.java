@@ -0,0 +1,58 @@
+package org.example.repository;
+
+import io.quarkus.test.common.QuarkusTestResourceLifecycleManager;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+//embedded postgres migrated by flyway- quarkus tests run the real sql without a db server
+public class EmbeddedPostgresResource implements QuarkusTestResourceLifecycleManager {
+
+    static EmbeddedPostgres postgres;
+
+    public static DataSource dataSource() {
+        return postgres.getPostgresDatabase();
+    }
+
+    @Override
+    public Map<String, String> start() {
+        try {
+            postgres = EmbeddedPostgres.start();
+            Flyway.configure()
+                    .dataSource(dataSource())
+                    .locations("classpath:db/migration")
+                    .load()
+                    .migrate();
+
+            try (Connection connection = dataSource().getConnection();
+                 Statement statement = connection.createStatement()) {
+                seed(statement);
+            }
+        } catch (IOException | SQLException e) {
+            throw new IllegalStateException("embedded postgres not started", e);
+        }
+        return Map.of(
+                "quarkus.datasource.jdbc.url", postgres.getJdbcUrl("postgres", "postgres"),
+                "quarkus.datasource.username", "postgres",
+                "quarkus.datasource.password", "postgres");
+    }
+
+    //rows the app must find at startup (tailor index, fabric catalog)
+    protected void seed(Statement statement) throws SQLException {
+    }
+
+    @Override
+    public void stop() {
+        try {
+            postgres.close();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
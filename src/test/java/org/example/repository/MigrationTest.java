@@ -0,0 +1,50 @@
+package org.example.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//a database created before migrations (V1 schema) moves to the current schema with its open orders due
+class MigrationTest {
+
+    private Flyway flyway(EmbeddedPostgres postgres, String target) {
+        return Flyway.configure()
+                .dataSource(postgres.getPostgresDatabase())
+                .locations("classpath:db/migration")
+                .target(target)
+                .load();
+    }
+
+    @Test
+    void testNextStageTimeBackfilled() throws Exception {
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.start()) {
+            flyway(postgres, "1").migrate(); //schema hibernate created
+
+            try (Connection connection = postgres.getPostgresDatabase().getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("insert into Tailor (tailorName) values ('Tailor 1')");
+                statement.execute("insert into Orders (orderId, fabric, stage, isCompleted, orderAcceptTime, stageInTime, orderCompleteTime, tailor_tailorid) values"
+                        + " ('open', 'Cotton', 'STITCHING', false, timestamp '2025-03-01 09:00', timestamp '2025-03-01 10:00', null, 1),"
+                        + " ('done', 'Cotton', 'DISPATCHED', true, timestamp '2025-03-01 09:00', timestamp '2025-03-02 10:00', timestamp '2025-03-02 10:00', 1)");
+
+                flyway(postgres, "latest").migrate();
+
+                try (ResultSet resultSet = statement.executeQuery("select orderId, nextStageTime from Orders order by orderId")) {
+                    assertTrue(resultSet.next());
+                    assertEquals("done", resultSet.getString(1));
+                    assertNull(resultSet.getTimestamp(2)); //completed- never due
+                    assertTrue(resultSet.next());
+                    assertEquals("open", resultSet.getString(1));
+                    assertEquals(Timestamp.valueOf("2025-03-01 10:00:00"), resultSet.getTimestamp(2)); //due since its stage began
+                }
+            }
+        }
+    }
+}
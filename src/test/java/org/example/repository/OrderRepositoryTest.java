@@ -0,0 +1,68 @@
+package org.example.repository;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.example.dto.OrderSummaryDto;
+import org.example.model.Order;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//stage-scheduler-route query on embedded postgres
+@QuarkusTest
+@TestProfile(EmbeddedPostgresProfile.class)
+class OrderRepositoryTest {
+
+    @Inject
+    OrderRepository orderRepository;
+
+    @BeforeEach
+    void setup() throws Exception {
+        TestDatabase.execute(TestDatabase.CLEAR,
+                TestDatabase.persons("person-", "@gmail.com", 4),
+                "insert into Tailor (tailorName, orderId, manager_userId) values ('Tailor 1', 'order-1', 4), ('Tailor 2', 'order-2', 4)",
+                //due 2 minutes ago, due 1 minute ago, due in a minute, completed
+                "insert into Orders (orderId, fabric, stage, isCompleted, nextStageTime, tailor_tailorid, user_userId) values"
+                        + " ('order-1', 'Cotton', 'PLACED', false, now() - interval '1 minute', 1, 1),"
+                        + " ('order-2', 'Cotton', 'STITCHING', false, now() - interval '2 minutes', 2, 2),"
+                        + " ('order-3', 'Cotton', 'CONFIRM', false, now() + interval '1 minute', 1, 3),"
+                        + " ('order-4', 'Cotton', 'DISPATCHED', true, null, 2, null)");
+    }
+
+    @Test
+    void testGetDueOrders() {
+        List<Order> orders = orderRepository.getDueOrders(LocalDateTime.now(), 500);
+
+        assertEquals(List.of("order-2", "order-1"), orders.stream().map(Order::getOrderId).toList()); //oldest first
+        assertEquals("person-2@gmail.com", orders.get(0).getUser().getEmail()); //fetched with the order
+        assertEquals("person-4@gmail.com", orders.get(0).getTailor().getManager().getEmail());
+    }
+
+    @Test
+    void testGetDueOrdersLimit() {
+        assertEquals(List.of("order-2"), orderRepository.getDueOrders(LocalDateTime.now(), 1).stream().map(Order::getOrderId).toList());
+    }
+
+    @Test
+    void testCompletedOrderPages() throws Exception {
+        //two orders at the same time, one in the last second of the day, one at the next midnight
+        TestDatabase.execute("insert into Orders (orderId, fabric, stage, isCompleted, orderCompleteTime, tailor_tailorid) values"
+                + " ('done-b', 'Cotton', 'DISPATCHED', true, timestamp '2025-03-01 10:00', 1),"
+                + " ('done-a', 'Cotton', 'DISPATCHED', true, timestamp '2025-03-01 10:00', 2),"
+                + " ('done-c', 'Cotton', 'DISPATCHED', true, timestamp '2025-03-01 23:59:59.999999', 1),"
+                + " ('done-d', 'Cotton', 'DISPATCHED', true, timestamp '2025-03-02 00:00', 2)");
+        LocalDateTime to = LocalDateTime.of(2025, 3, 2, 0, 0);
+
+        List<OrderSummaryDto> first = orderRepository.getCompletedOrderPage(LocalDateTime.of(2025, 3, 1, 0, 0), "", to, 2);
+        OrderSummaryDto last = first.get(1);
+        List<OrderSummaryDto> second = orderRepository.getCompletedOrderPage(last.getStageInTime(), last.getOrderId(), to, 2);
+
+        assertEquals(List.of("done-a", "done-b"), first.stream().map(OrderSummaryDto::getOrderId).toList());
+        assertEquals(List.of("done-c"), second.stream().map(OrderSummaryDto::getOrderId).toList()); //next midnight is the next report
+    }
+}
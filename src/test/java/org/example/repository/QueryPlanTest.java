@@ -0,0 +1,147 @@
+package org.example.repository;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//the sql hibernate generates for the hot repository queries, on a production-like amount of rows, must be planned
+//on the migration indexes- planned generic, like a prepared statement the jdbc driver reuses
+@QuarkusTest
+@TestProfile(QueryPlanTest.Profile.class)
+class QueryPlanTest {
+
+    public static class Profile extends EmbeddedPostgresProfile {
+
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            Map<String, String> overrides = new HashMap<>(super.getConfigOverrides());
+            overrides.put("quarkus.hibernate-orm.unsupported-properties.\"hibernate.session_factory.statement_inspector\"",
+                    SqlCapture.class.getName());
+            return overrides;
+        }
+
+        @Override
+        public List<TestResourceEntry> testResources() {
+            return List.of(new TestResourceEntry(Postgres.class));
+        }
+    }
+
+    //10k tailors (1% free), 100k orders over 100 days (2% open)
+    public static class Postgres extends EmbeddedPostgresResource {
+
+        @Override
+        protected void seed(Statement statement) throws SQLException {
+            statement.execute("insert into Person (email) values ('manager@gmail.com')");
+            statement.execute("insert into Fabric (fabricName) select 'fabric-' || i from generate_series(1, 1000) i");
+            statement.execute("insert into Tailor (tailorName, orderId, manager_userId)"
+                    + " select 'tailor-' || i, case when i % 100 = 0 then null else 'order-' || i end, 1 from generate_series(1, 10000) i");
+            statement.execute("insert into Orders (orderId, fabric, stage, isCompleted, orderAcceptTime, stageInTime, nextStageTime, orderCompleteTime, tailor_tailorid)"
+                    + " select 'order-' || i, 'Cotton', case when i % 50 = 0 then 'STITCHING' else 'DISPATCHED' end, i % 50 <> 0,"
+                    + " now() - (i * 86 || ' seconds')::interval, now() - (i * 86 || ' seconds')::interval,"
+                    + " case when i % 50 = 0 then now() - (i * 86 - 30 || ' seconds')::interval end,"
+                    + " case when i % 50 <> 0 then now() - (i * 86 || ' seconds')::interval end, (i - 1) % 10000 + 1"
+                    + " from generate_series(1, 100000) i");
+            statement.execute("analyze");
+        }
+    }
+
+    //every statement hibernate sends, in order
+    public static class SqlCapture implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    @Inject
+    OrderRepository orderRepository;
+
+    @Inject
+    TailorRepository tailorRepository;
+
+    //plan of the first select the repository call sends
+    private String plan(Runnable repositoryCall) throws Exception {
+        SqlCapture.STATEMENTS.clear();
+        repositoryCall.run();
+        String sql = SqlCapture.STATEMENTS.stream().filter(s -> s.startsWith("select")).findFirst().orElseThrow();
+
+        StringBuilder prepared = new StringBuilder();
+        int parameters = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                prepared.append('$').append(++parameters);
+            } else {
+                prepared.append(c);
+            }
+        }
+
+        StringBuilder plan = new StringBuilder();
+        try (Connection connection = EmbeddedPostgresResource.dataSource().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("set plan_cache_mode = force_generic_plan"); //plan does not depend on the values
+            statement.execute("prepare repository_query as " + prepared);
+            String values = parameters == 0 ? "" : "(" + String.join(", ", Collections.nCopies(parameters, "null")) + ")";
+            try (ResultSet resultSet = statement.executeQuery("explain execute repository_query" + values)) {
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1)).append('\n');
+                }
+            }
+        }
+        return plan.toString();
+    }
+
+    @Test
+    void testFreeTailorUsesPartialIndex() throws Exception {
+        String plan = plan(() -> tailorRepository.getAvailableTailor());
+        assertTrue(plan.contains("idx_tailor_free"), plan);
+    }
+
+    @Test
+    void testDelayedOrdersUseCompositeIndex() throws Exception {
+        String plan = plan(() -> orderRepository.getAllDelayedOrder());
+        assertTrue(plan.contains("idx_orders_completed_stage_in_time"), plan);
+    }
+
+    @Test
+    void testCompletedOrderPageReadsInIndexOrder() throws Exception {
+        LocalDateTime yesterday = LocalDate.now().minusDays(1).atStartOfDay();
+        String plan = plan(() -> orderRepository.getCompletedOrderPage(yesterday.plusHours(12), "order-500", yesterday.plusDays(1), 1000));
+        assertTrue(plan.contains("idx_orders_complete_time_order_id"), plan);
+        assertFalse(plan.contains("Sort"), plan); //page starts at the key, no rows of the day read again and sorted
+    }
+
+    @Test
+    void testDueOrdersUseDueIndex() throws Exception {
+        String plan = plan(() -> orderRepository.getDueOrders(LocalDateTime.now(), 500));
+        assertTrue(plan.contains("idx_orders_due"), plan);
+    }
+
+    @Test
+    void testFabricNameIsUniqueIgnoringCase() throws Exception {
+        try (Connection connection = EmbeddedPostgresResource.dataSource().getConnection();
+             Statement statement = connection.createStatement()) {
+            assertThrows(SQLException.class, () -> statement.execute("insert into Fabric (fabricName) values ('fabric-1')"));
+            assertThrows(SQLException.class, () -> statement.execute("insert into Fabric (fabricName) values ('FABRIC-1')"));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.repository;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+//rows of the embedded postgres (EmbeddedPostgresResource) written and counted by tests with plain jdbc- outside the app's transactions
+public final class TestDatabase {
+
+    //every table the order tests fill, ids start at 1 again
+    public static final String CLEAR = "truncate Orders, Tailor_Fabric, Tailor, Fabric, Person restart identity cascade";
+
+    private TestDatabase() {
+    }
+
+    public static void execute(String... statements) throws SQLException {
+        try (Connection connection = EmbeddedPostgresResource.dataSource().getConnection();
+             Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    //first column of the first row- select count(*) ...
+    public static long count(String query) throws SQLException {
+        try (Connection connection = EmbeddedPostgresResource.dataSource().getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(query)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    //persons 1..count, email <prefix><i><domain>
+    public static String persons(String emailPrefix, String emailDomain, int count) {
+        return "insert into Person (email) select '" + emailPrefix + "' || i || '" + emailDomain + "' from generate_series(1, " + count + ") i";
+    }
+
+    //fabrics 1..n in the given order
+    public static String fabrics(String... fabricNames) {
+        return "insert into Fabric (fabricName) values "
+                + Arrays.stream(fabricNames).map(name -> "('" + name + "')").collect(Collectors.joining(", "));
+    }
+
+    //free tailors 1..count, "Tailor <i>"
+    public static String tailors(int count) {
+        return "insert into Tailor (tailorName) select 'Tailor ' || i from generate_series(1, " + count + ") i";
+    }
+
+    //every tailor works with the fabric
+    public static String tailorsWithFabric(long fabricId) {
+        return "insert into Tailor_Fabric (Tailor_tailorId, fabrics_fabricId) select tailorId, " + fabricId + " from Tailor";
+    }
+}
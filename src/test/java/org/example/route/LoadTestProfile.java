@@ -0,0 +1,73 @@
+package org.example.route;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.quarkus.test.common.QuarkusTestResourceLifecycleManager;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import org.example.repository.EmbeddedPostgresResource;
+import org.example.repository.TestDatabase;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+//whole app on local stand-ins: embedded postgres, seda for the kafka mail-topic, GreenMail for smtp
+//load is set with -Dloadtest.rate (orders/s), -Dloadtest.duration (s) and -Dloadtest.tailors
+public class LoadTestProfile implements QuarkusTestProfile {
+
+    static final int RATE = Integer.getInteger("loadtest.rate", 50);
+    static final int DURATION = Integer.getInteger("loadtest.duration", 30);
+    static final int TAILORS = Integer.getInteger("loadtest.tailors", 1000);
+    static final int ORDERS = RATE * DURATION; //one customer per order- user_userId is unique in Orders
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        return Map.of(
+                "mail.topic.producer", MailTopicStandInRoute.STAND_IN,
+                "mail.topic.consumer", "seda:mail-topic?concurrentConsumers=3",
+                "order.stage.duration.confirm", "0s",
+                "order.stage.duration.fabric-cut", "0s",
+                "order.stage.duration.stitching", "0s",
+                "order.stage.scheduler.period", "100",
+                "tailor.seda.queue-size", "1000", //%test value is small for MainRouteTest
+                "outbox.relay.period", "50");
+    }
+
+    @Override
+    public List<TestResourceEntry> testResources() {
+        return List.of(new TestResourceEntry(Postgres.class), new TestResourceEntry(Smtp.class));
+    }
+
+    //seeded before quarkus starts, so the tailor index and fabric catalog load the seeded rows
+    public static class Postgres extends EmbeddedPostgresResource {
+
+        @Override
+        protected void seed(Statement statement) throws SQLException {
+            statement.execute(TestDatabase.persons("customer-", "@localhost", ORDERS));
+            statement.execute(TestDatabase.fabrics("Cotton", "Silk", "Linen"));
+            statement.execute(TestDatabase.tailors(TAILORS));
+            statement.execute("insert into Tailor_Fabric (Tailor_tailorId, fabrics_fabricId) select t.tailorId, f.fabricId from Tailor t cross join Fabric f");
+            statement.execute("analyze");
+        }
+    }
+
+    //smtp on a free port, mails for any recipient are accepted
+    public static class Smtp implements QuarkusTestResourceLifecycleManager {
+
+        static GreenMail greenMail;
+
+        @Override
+        public Map<String, String> start() {
+            greenMail = new GreenMail(ServerSetupTest.SMTP.dynamicPort());
+            greenMail.setUser("shop@localhost", "secret");
+            greenMail.start();
+            return Map.of("mail.sender.port", String.valueOf(greenMail.getSmtp().getPort()));
+        }
+
+        @Override
+        public void stop() {
+            greenMail.stop();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.route;
+
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import jakarta.mail.internet.MimeMessage;
+import org.apache.camel.ProducerTemplate;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//mail-digest-route at its max-recipients limit- open digests go out, the new recipient starts its own digest
+@QuarkusTest
+@TestProfile(MailDigestFlushTest.Profile.class)
+class MailDigestFlushTest {
+
+    public static class Profile implements QuarkusTestProfile {
+
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("mail.digest.max-recipients", "2",
+                    "mail.digest.completion-timeout", "3000"); //flushed digests arrive long before their timeout
+        }
+    }
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP)
+            .withConfiguration(GreenMailConfiguration.aConfig().withUser("shop@localhost", "secret"));
+
+    @Inject
+    ProducerTemplate producerTemplate;
+
+    private void digestMail(String to, String body) {
+        producerTemplate.send("direct:mail-digest", exchange -> {
+            exchange.getIn().setBody(body);
+            exchange.setProperty("subject", "Order Update");
+            exchange.setProperty("to", to);
+        });
+    }
+
+    private static String recipient(MimeMessage mail) {
+        try {
+            return mail.getAllRecipients()[0].toString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    void testNewRecipientFlushesOpenDigests() throws Exception {
+        digestMail("a@gmail.com", "a 1");
+        digestMail("a@gmail.com", "a 2"); //joins its open digest- no flush
+        digestMail("b@gmail.com", "b 1");
+        digestMail("c@gmail.com", "c 1"); //third recipient- a and b go out now
+        digestMail("c@gmail.com", "c 2");
+
+        assertTrue(greenMail.waitForIncomingEmail(1500, 2));
+        Set<String> flushed = Arrays.stream(greenMail.getReceivedMessages()).map(MailDigestFlushTest::recipient).collect(Collectors.toSet());
+        assertEquals(Set.of("a@gmail.com", "b@gmail.com"), flushed); //c is not sent with them
+
+        assertTrue(greenMail.waitForIncomingEmail(5000, 3)); //c after its completion-timeout
+        MimeMessage digest = greenMail.getReceivedMessages()[2];
+        assertEquals("c@gmail.com", recipient(digest));
+        assertEquals("Your order updates (2)", digest.getSubject()); //both mails of c in one digest
+    }
+}
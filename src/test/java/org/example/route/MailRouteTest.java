@@ -1,53 +1,165 @@
-//package org.example.route;
-//
-//import io.quarkus.test.junit.QuarkusTest;
-//import jakarta.inject.Inject;
-//import org.apache.camel.CamelContext;
-//import org.apache.camel.ProducerTemplate;
-//import org.apache.camel.builder.AdviceWithRouteBuilder;
-//import org.apache.camel.component.mock.MockEndpoint;
-//import org.junit.jupiter.api.BeforeEach;
-//import org.junit.jupiter.api.Test;
-//
-//import static org.apache.camel.builder.AdviceWith.adviceWith;
-//import static org.junit.jupiter.api.Assertions.assertNotNull;
-//
-//@QuarkusTest
-//class MailRouteTest {
-//
-//    @Inject
-//    CamelContext camelContext;
-//
-//    @Inject
-//    ProducerTemplate producerTemplate;
-//
-//
-//
-//    @Test
-//    void testSendMailRoute() throws Exception {
-//
-//        adviceWith("send-mail-route", camelContext, new AdviceWithRouteBuilder() {
-//            @Override
-//            public void configure() throws Exception {
-//                weaveByToUri("smtps://smtp.gmail.com:465.*")
-//                        .replace()
-//                        .to("mock:smtp");
-//            }
-//        });
-//
-//        MockEndpoint mockSmtp = camelContext.getEndpoint("mock:smtp", MockEndpoint.class);
-//        mockSmtp.expectedMessageCount(1);
-//
-//        mockSmtp.expectedHeaderReceived("subject", "Test Subject");
-//        mockSmtp.expectedHeaderReceived("to", "test@gmail.com");
-//        mockSmtp.expectedHeaderReceived("Content-Type", "text/plain");
-//
-//        producerTemplate.send("direct:send-mail", exchange -> {
-//            exchange.getIn().setBody("Test Body");
-//            exchange.setProperty("subject", "Test Subject");
-//            exchange.setProperty("to", "test@gmail.com");
-//        });
-//
-//        mockSmtp.assertIsSatisfied();
-//    }
-//}
+package org.example.route;
+
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.mail.internet.MimeMessage;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.component.kafka.KafkaConstants;
+import org.apache.camel.component.kafka.consumer.KafkaManualCommit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+//send-mail-route against a local GreenMail smtp server (%test.mail.sender.* in application.properties)
+@QuarkusTest
+class MailRouteTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP)
+            .withConfiguration(GreenMailConfiguration.aConfig().withUser("shop@localhost", "secret"));
+
+    @Inject
+    ProducerTemplate producerTemplate;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Inject
+    MailTopicOffsets mailTopicOffsets;
+
+    private void sendMail(String to, String subject, String body) {
+        producerTemplate.send("direct:send-mail", exchange -> {
+            exchange.getIn().setBody(body);
+            exchange.setProperty("subject", subject);
+            exchange.setProperty("to", to);
+        });
+    }
+
+    private void digestMail(String to, String subject, String body) {
+        producerTemplate.send("direct:mail-digest", exchange -> {
+            exchange.getIn().setBody(body);
+            exchange.setProperty("subject", subject);
+            exchange.setProperty("to", to);
+        });
+    }
+
+    //as consume-from-kafka-route hands a record to the digest
+    private void digestRecord(String to, long offset, KafkaManualCommit manualCommit) {
+        producerTemplate.send("direct:mail-digest", exchange -> {
+            exchange.getIn().setHeaders(Map.of(KafkaConstants.MANUAL_COMMIT, manualCommit, KafkaConstants.PARTITION, 0, KafkaConstants.OFFSET, offset));
+            mailTopicOffsets.consumed(exchange);
+            exchange.getIn().setBody("update " + offset);
+            exchange.setProperty("subject", "Order Update");
+            exchange.setProperty("to", to);
+        });
+    }
+
+    private MimeMessage receivedFor(String to) throws Exception {
+        for (MimeMessage mail : greenMail.getReceivedMessages()) {
+            if (to.equals(mail.getAllRecipients()[0].toString())) {
+                return mail;
+            }
+        }
+        return fail("no mail to " + to);
+    }
+
+    @Test
+    void testMailDigestPerRecipient() throws Exception {
+        digestMail("customer@gmail.com", "Order Confirmed", "Your order is confirmed");
+        digestMail("customer@gmail.com", "Fabric Being Cut", "Your order fabric being cut");
+        digestMail("other@gmail.com", "Order Confirmed", "Your order is confirmed");
+        digestMail("customer@gmail.com", "Stitching Started", "Your order stitching started");
+
+        //%test completion-timeout is 500ms
+        assertTrue(greenMail.waitForIncomingEmail(5000, 2));
+        Thread.sleep(1000); //nothing else follows
+        assertEquals(2, greenMail.getReceivedMessages().length);
+
+        MimeMessage digest = receivedFor("customer@gmail.com");
+        assertEquals("Your order updates (3)", digest.getSubject());
+        String body = digest.getContent().toString();
+        assertTrue(body.contains("confirmed") && body.contains("fabric being cut") && body.contains("stitching started"));
+
+        MimeMessage single = receivedFor("other@gmail.com");
+        assertEquals("Order Confirmed", single.getSubject()); //one mail keeps its subject
+    }
+
+    @Test
+    void testOffsetCommittedAfterDigestSent() throws Exception {
+        KafkaManualCommit first = mock(KafkaManualCommit.class);
+        KafkaManualCommit second = mock(KafkaManualCommit.class);
+        int pendingBefore = mailTopicOffsets.pendingCount();
+
+        digestRecord("digest@gmail.com", 40, first);
+        digestRecord("digest@gmail.com", 41, second);
+
+        verify(second, never()).commit(); //records wait in the digest- not committed yet
+        assertEquals(pendingBefore + 2, mailTopicOffsets.pendingCount());
+
+        assertTrue(greenMail.waitForIncomingEmail(5000, 1)); //%test completion-timeout is 500ms
+        verify(second, timeout(5000)).commit(); //last record of the sent digest
+        verify(first, never()).commit(); //covered by the commit of the later offset
+        assertEquals(pendingBefore, mailTopicOffsets.pendingCount());
+    }
+
+    @Test
+    void testOffsetCommittedAfterMailGivenUp() {
+        KafkaManualCommit manualCommit = mock(KafkaManualCommit.class);
+        double failedBefore = meterRegistry.counter("mail.failed").count();
+        greenMail.stop(); //smtp server down- every send fails
+
+        digestRecord("down@gmail.com", 50, manualCommit);
+
+        //%test redelivery-delay is 10ms- retried, given up, and the record no longer holds back its partition
+        verify(manualCommit, timeout(5000)).commit();
+        assertEquals(1, meterRegistry.counter("mail.failed").count() - failedBefore);
+    }
+
+    @Test
+    void testSendMailRoute() throws Exception {
+        sendMail("test@gmail.com", "Test Subject", "Test Body");
+
+        assertTrue(greenMail.waitForIncomingEmail(5000, 1));
+        MimeMessage mail = greenMail.getReceivedMessages()[0];
+        assertEquals("Test Subject", mail.getSubject());
+        assertEquals("test@gmail.com", mail.getAllRecipients()[0].toString());
+        assertTrue(mail.getContent().toString().contains("Test Body"));
+    }
+
+    @Test
+    void testMailSentAfterSmtpRestart() throws Exception {
+        double failedBefore = meterRegistry.counter("mail.failed").count();
+        sendMail("first@gmail.com", "Order Confirmed", "Your order is confirmed");
+        assertTrue(greenMail.waitForIncomingEmail(5000, 1));
+
+        greenMail.reset(); //server restarted- the pooled session's connection is gone
+        sendMail("second@gmail.com", "Order Confirmed", "Your order is confirmed");
+
+        assertTrue(greenMail.waitForIncomingEmail(5000, 1));
+        assertEquals("second@gmail.com", greenMail.getReceivedMessages()[0].getAllRecipients()[0].toString());
+        assertEquals(failedBefore, meterRegistry.counter("mail.failed").count());
+    }
+
+    @Test
+    void testMailsShareSmtpSession() {
+        double sessionsBefore = meterRegistry.counter("mail.smtp.sessions").count();
+        long sentBefore = meterRegistry.timer("mail.send").count();
+
+        for (int i = 0; i < 20; i++) { //00:05 burst
+            sendMail("owner" + i + "@gmail.com", "Daily Update", "orders " + i);
+        }
+
+        assertTrue(greenMail.waitForIncomingEmail(5000, 20));
+        assertEquals(20, meterRegistry.timer("mail.send").count() - sentBefore);
+        //GreenMail is restarted per test- one new session, reused for all 20 mails
+        assertEquals(1, meterRegistry.counter("mail.smtp.sessions").count() - sessionsBefore);
+    }
+}
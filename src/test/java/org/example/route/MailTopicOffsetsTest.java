@@ -0,0 +1,100 @@
+package org.example.route;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.component.kafka.KafkaConstants;
+import org.apache.camel.component.kafka.consumer.KafkaManualCommit;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MailTopicOffsetsTest {
+
+    private final MailTopicOffsets mailTopicOffsets = new MailTopicOffsets();
+    private final DefaultCamelContext camelContext = new DefaultCamelContext();
+
+    private Exchange consumed(int partition, long offset, KafkaManualCommit manualCommit) {
+        Exchange exchange = new DefaultExchange(camelContext);
+        exchange.getIn().setHeaders(Map.of(KafkaConstants.MANUAL_COMMIT, manualCommit, KafkaConstants.PARTITION, partition, KafkaConstants.OFFSET, offset));
+        mailTopicOffsets.consumed(exchange);
+        return exchange;
+    }
+
+    //digest mail sent with the records of these exchanges
+    private void sent(Exchange... exchanges) {
+        List<MailTopicOffsets.TopicRecord> records = new ArrayList<>();
+        for (Exchange exchange : exchanges) {
+            records.add(exchange.getProperty(MailTopicOffsets.RECORD, MailTopicOffsets.TopicRecord.class));
+        }
+        Exchange digest = new DefaultExchange(camelContext);
+        digest.setProperty(MailDigestAggregationStrategy.RECORDS, records);
+        mailTopicOffsets.sent(digest);
+    }
+
+    @Test
+    void testCommitStopsAtFirstUnsentRecord() {
+        KafkaManualCommit commit0 = mock(KafkaManualCommit.class);
+        KafkaManualCommit commit1 = mock(KafkaManualCommit.class);
+        KafkaManualCommit commit2 = mock(KafkaManualCommit.class);
+        Exchange customerA = consumed(0, 0, commit0);
+        Exchange customerB = consumed(0, 1, commit1);
+        Exchange customerA2 = consumed(0, 2, commit2);
+
+        sent(customerB); //offset 0 still in A's digest- committing 1 would skip it
+        verifyNoInteractions(commit0, commit1, commit2);
+
+        sent(customerA, customerA2); //0, 1 and 2 sent- one commit covers them
+        verify(commit2).commit();
+        verify(commit0, never()).commit();
+        verify(commit1, never()).commit();
+        assertEquals(0, mailTopicOffsets.pendingCount());
+    }
+
+    @Test
+    void testPartitionsCommittedSeparately() {
+        KafkaManualCommit partition0 = mock(KafkaManualCommit.class);
+        KafkaManualCommit partition1 = mock(KafkaManualCommit.class);
+        Exchange waiting = consumed(0, 10, partition0);
+        Exchange sent = consumed(1, 10, partition1);
+
+        sent(sent);
+
+        verify(partition1).commit();
+        verify(partition0, never()).commit();
+        assertEquals(1, mailTopicOffsets.pendingCount());
+        assertNotNull(waiting.getProperty(MailTopicOffsets.RECORD));
+    }
+
+    @Test
+    void testRevokedPartitionNotCommitted() {
+        KafkaManualCommit revoked = mock(KafkaManualCommit.class);
+        KafkaManualCommit kept = mock(KafkaManualCommit.class);
+        Exchange inDigest = consumed(0, 5, revoked);
+        Exchange other = consumed(1, 5, kept);
+
+        mailTopicOffsets.revoked(List.of(new TopicPartition("mail-topic", 0))); //rebalance while the digest waits
+        assertEquals(1, mailTopicOffsets.pendingCount());
+
+        sent(inDigest, other);
+        verify(revoked, never()).commit(); //partition 0 belongs to another consumer now
+        verify(kept).commit();
+        assertEquals(0, mailTopicOffsets.pendingCount());
+    }
+
+    @Test
+    void testNotFromKafka() {
+        Exchange exchange = new DefaultExchange(camelContext); //seda stand-in- no kafka headers
+        mailTopicOffsets.consumed(exchange);
+        mailTopicOffsets.sent(exchange); //digest without records
+
+        assertNull(exchange.getProperty(MailTopicOffsets.RECORD));
+        assertEquals(0, mailTopicOffsets.pendingCount());
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.route;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.apache.camel.builder.RouteBuilder;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+//kafka mail-topic without a broker (LoadTestProfile): one outbox batch in, every record on seda:mail-topic as a String
+//other tests keep their routes as they are- the route exists only when mail.topic.producer points at it
+@ApplicationScoped
+public class MailTopicStandInRoute extends RouteBuilder {
+
+    static final String STAND_IN = "direct:mail-topic-stand-in";
+
+    @ConfigProperty(name = "mail.topic.producer")
+    String mailTopicProducer;
+
+    @Override
+    public void configure() throws Exception {
+        if (!STAND_IN.equals(mailTopicProducer)) {
+            return;
+        }
+        from(STAND_IN)
+                .routeId("mail-topic-stand-in-route")
+                .split(body()) //camel messages of the batch- body is the json, header the record key
+                    .to("seda:mail-topic")
+                .end()
+        ;
+    }
+}
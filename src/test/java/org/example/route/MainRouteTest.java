@@ -1,27 +1,38 @@
 package org.example.route;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.quarkus.test.InjectMock;
 import io.quarkus.test.junit.QuarkusTest;
 import jakarta.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.camel.*;
 import org.apache.camel.builder.AdviceWithRouteBuilder;
+import org.apache.camel.component.kafka.KafkaConstants;
+import org.apache.camel.component.kafka.consumer.KafkaManualCommit;
 import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.component.seda.SedaEndpoint;
+import org.apache.camel.support.DefaultExchange;
 import org.example.dto.OrderDto;
 import org.example.dto.OrderResponseDto;
+import org.example.dto.OrderSummaryDto;
 import org.example.model.*;
 import org.example.repository.OrderRepository;
 import org.example.repository.PersonRepository;
 import org.example.repository.TailorRepository;
+import org.example.service.NotificationOutbox;
 import org.example.service.OrderService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 import static org.apache.camel.builder.AdviceWith.adviceWith;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 
@@ -47,9 +58,15 @@ public class MainRouteTest {
     @InjectMock
     PersonRepository personRepository;
 
+    @InjectMock
+    NotificationOutbox notificationOutbox;
+
     @Inject
     MainRoute mainRoute;
 
+    @Inject
+    MeterRegistry meterRegistry;
+
     @BeforeEach
     public void setup() throws Exception {
 
@@ -57,12 +74,16 @@ public class MainRouteTest {
         // then return a new Order object without actually calling the real database.
         when(orderRepository.getOrderById(any(String.class))).thenReturn(new Order());
 
+        //stage transitions succeed- order is in the expected previous stage
+        when(orderRepository.updateStage(any(), any(), any(), any(), any())).thenReturn(true);
+        when(orderRepository.completeOrder(any(), any(), any(), any())).thenReturn(true);
+
         //When updateTailor() is called on tailorRepository with any Tailor object,
         //then return a new Tailor object without actually calling the real database.
         when(tailorRepository.updateTailor(any(Tailor.class))).thenReturn(new Tailor());
 
         //modify the route for testing.
-        adviceWith("insert-to-kafka-route", camelContext, new AdviceWithRouteBuilder() {
+        adviceWith("produce-to-kafka-route", camelContext, new AdviceWithRouteBuilder() {
             @Override
             public void configure() throws Exception {
                 interceptSendToEndpoint("kafka:*")
@@ -76,7 +97,7 @@ public class MainRouteTest {
         Order order = new Order(); //Get all Order Details
         order.setOrderId(UUID.randomUUID().toString()); //new orderId
         order.setFabric("Cotton");
-        order.setStage("NEW");
+        order.setStage("PLACED");
         order.setStageInTime(LocalDateTime.now());
 
         Person person = new Person();
@@ -163,167 +184,231 @@ public class MainRouteTest {
         assertEquals("PLACED", receivedOrder.getStage());
     }
 
+    //seda:tailor of the running app, consumed by tailor-route
+    private SedaEndpoint tailorQueue() {
+        return (SedaEndpoint) camelContext.getRoute("tailor-route").getEndpoint();
+    }
+
     @Test
-    public void testSedaStage() throws Exception {
-        //modify the route for testing.
-        adviceWith("tailor-route", camelContext, new AdviceWithRouteBuilder() {
-            @Override
-            public void configure() throws Exception {
-                weaveByToUri("direct:confirm-stage").replace().to("mock:confirm");
+    void testValidateOrderQueueFull() throws Exception {
+        SedaEndpoint tailorQueue = tailorQueue();
+        camelContext.getRouteController().stopRoute("tailor-route"); //nobody takes orders off the queue
+        try {
+            while (tailorQueue.getQueue().remainingCapacity() > 0) { //%test.tailor.seda.queue-size
+                tailorQueue.getQueue().offer(new DefaultExchange(camelContext));
             }
-        });
 
-        //retrieves a mock endpoint from the Camel context
-        MockEndpoint mockConfirm = camelContext.getEndpoint("mock:confirm", MockEndpoint.class);
-        mockConfirm.expectedMessageCount(1); //expected 1 msg
+            Exchange result = producerTemplate.send("direct:validate-order", ex->ex.getIn().setBody(new OrderDto()));
 
-        Order order = buildTestOrder();
+            assertEquals(503, result.getMessage().getHeader(Exchange.HTTP_RESPONSE_CODE));
+            assertEquals("5", result.getMessage().getHeader("Retry-After", String.class));
+            assertEquals(OrderService.ORDER_QUEUE_FULL, result.getMessage().getBody(String.class));
 
-        //Send a msg to the asynchronous route seda:tailor
-        producerTemplate.send("seda:tailor", exchange -> {
-            exchange.setProperty("order", order);
-            exchange.setProperty("tailor", order.getTailor());
-        });
+            tailorQueue.getQueue().poll(); //room for one order, not for two
+            Exchange bulkResult = producerTemplate.send("direct:validate-orders", ex->ex.getIn().setBody(new OrderDto[]{new OrderDto(), new OrderDto()}));
 
-        mockConfirm.assertIsSatisfied();
+            assertEquals(503, bulkResult.getMessage().getHeader(Exchange.HTTP_RESPONSE_CODE));
+            assertEquals("5", bulkResult.getMessage().getHeader("Retry-After", String.class));
+
+            verify(orderService, never()).validateOrder(any(Exchange.class)); //no tailor claimed, nothing to cancel
+            verify(orderService, never()).validateOrders(any(Exchange.class));
+            verify(orderService, never()).cancelPlacedOrder(any(Exchange.class));
+            verify(orderService, times(2)).reject("queue-full");
+        } finally {
+            tailorQueue.getQueue().clear();
+            camelContext.getRouteController().startRoute("tailor-route");
+        }
     }
 
     @Test
-    public void testConfirmStage() throws Exception {
-        //modify the route for testing.
-        adviceWith("confirm-stage-route", camelContext, new AdviceWithRouteBuilder() {
+    void testValidateOrderRejectedNotQueued() throws Exception {
+        SedaEndpoint tailorQueue = tailorQueue();
+        MockEndpoint mockTailor = camelContext.getEndpoint("mock:tailor", MockEndpoint.class); //seda:tailor once testValidateOrderRoute advised the route
+        mockTailor.reset();
+        camelContext.getRouteController().stopRoute("tailor-route");
+        try {
+            doAnswer(invocation->{
+                Exchange ex=invocation.getArgument(0);
+                ex.getIn().setBody("This fabric does not exist"); //no order placed
+                ex.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, 404);
+                return ex;
+            }).when(orderService).validateOrder(any(Exchange.class));
+
+            Exchange result = producerTemplate.send("direct:validate-order", ex->ex.getIn().setBody(new OrderDto()));
+
+            assertEquals(404, result.getMessage().getHeader(Exchange.HTTP_RESPONSE_CODE));
+            assertEquals("This fabric does not exist", result.getMessage().getBody(String.class));
+            assertEquals(0, tailorQueue.getCurrentQueueSize()); //nothing for the tailor
+            assertEquals(0, mockTailor.getReceivedCounter());
+        } finally {
+            tailorQueue.getQueue().clear();
+            camelContext.getRouteController().startRoute("tailor-route");
+        }
+    }
+
+    @Test
+    void testValidateOrdersRoute() throws Exception {
+
+        adviceWith("validate-orders-route", camelContext, new AdviceWithRouteBuilder() {
             @Override
             public void configure() throws Exception {
-                weaveByToUri("direct:fabric-cut-stage").replace().to("mock:fabric");
-                weaveByToUri("direct:insert-to-kafka").replace().to("mock:kafka-confirm-stage");
+                weaveByToUri("seda:tailor*").replace().to("mock:tailor-bulk");
             }
         });
 
-        //retrieves a mock endpoint from the Camel context
-        MockEndpoint mockKafka = camelContext.getEndpoint("mock:kafka-confirm-stage", MockEndpoint.class);
-        mockKafka.expectedMessageCount(1);
+        Order o1 = buildTestOrder();
+        Order o2 = buildTestOrder();
 
-        //retrieves a mock endpoint from the Camel context
-        MockEndpoint mockFabric = camelContext.getEndpoint("mock:fabric", MockEndpoint.class);
-        mockFabric.expectedMessageCount(1);
+        doAnswer(invocation->{
+            Exchange ex=invocation.getArgument(0);
 
-        Order order = buildTestOrder(); //get order details
+            ex.setProperty("orders", List.of(o1, o2)); //placed orders
+            ex.getIn().setBody(List.of(
+                    java.util.Map.of("index", 0, "status", "order placed successfully", "orderId", o1.getOrderId()),
+                    java.util.Map.of("index", 1, "status", "order placed successfully", "orderId", o2.getOrderId()),
+                    java.util.Map.of("index", 2, "status", "This fabric does not exist", "code", 404)));
 
-        //Send a msg to the synchronous route direct:confirm-stage
-        producerTemplate.send("direct:confirm-stage", exchange -> {
-            exchange.setProperty("order", order);
-            exchange.setProperty("tailor", order.getTailor());
-        });
+            return ex;
+        }).when(orderService).validateOrders(any(Exchange.class));
 
-        mockKafka.assertIsSatisfied();
-        mockFabric.assertIsSatisfied();
+        MockEndpoint mockTailor = camelContext.getEndpoint("mock:tailor-bulk", MockEndpoint.class);
+        mockTailor.expectedMessageCount(2); //one seda message per placed order
+
+        List<?> result = producerTemplate.requestBody("direct:validate-orders", new OrderDto[]{new OrderDto(), new OrderDto(), new OrderDto()}, List.class);
+
+        mockTailor.assertIsSatisfied();
+
+        assertEquals(3, result.size()); //result for every order
+        assertEquals(o1, mockTailor.getExchanges().get(0).getProperty("order", Order.class));
+        assertEquals(o2.getTailor(), mockTailor.getExchanges().get(1).getProperty("tailor", Tailor.class));
     }
 
     @Test
-    public void testFabricCutStage() throws Exception {
-
-        adviceWith("fabric-cut-stage-route", camelContext, new AdviceWithRouteBuilder() {
+    public void testSedaStage() throws Exception {
+        //modify the route for testing.
+        adviceWith("tailor-route", camelContext, new AdviceWithRouteBuilder() {
             @Override
             public void configure() throws Exception {
-                weaveByToUri("direct:stitching-stage").replace().to("mock:stitch");
-                weaveByToUri("direct:insert-to-kafka").replace().to("mock:kafka-fabric-cut-stage");
+                weaveByToUri("direct:advance-stage").replace().to("mock:confirm");
             }
         });
 
-        MockEndpoint mockKafka = camelContext.getEndpoint("mock:kafka-fabric-cut-stage", MockEndpoint.class);
-        mockKafka.expectedMessageCount(1);
-
-        MockEndpoint mockStitch = camelContext.getEndpoint("mock:stitch", MockEndpoint.class);
-        mockStitch.expectedMessageCount(1);
+        //retrieves a mock endpoint from the Camel context
+        MockEndpoint mockConfirm = camelContext.getEndpoint("mock:confirm", MockEndpoint.class);
+        mockConfirm.expectedMessageCount(1); //expected 1 msg
 
         Order order = buildTestOrder();
 
-        producerTemplate.send("direct:fabric-cut-stage", exchange -> {
+        //Send a msg to the asynchronous route seda:tailor
+        producerTemplate.send("seda:tailor", exchange -> {
             exchange.setProperty("order", order);
             exchange.setProperty("tailor", order.getTailor());
         });
 
-        mockKafka.assertIsSatisfied();
-        mockStitch.assertIsSatisfied();
+        mockConfirm.assertIsSatisfied();
     }
 
-    @Test
-    public void testStitchingStage() throws Exception {
+    //every stage goes through the same engine route- stage, subject of notification
+    @ParameterizedTest
+    @CsvSource({
+            "PLACED, CONFIRM, Order Confirmed",
+            "CONFIRM, FABRIC_CUT, Fabric Being Cut",
+            "FABRIC_CUT, STITCHING, Stitching Started",
+            "STITCHING, QUALITY_CHECK, Quality Check"
+    })
+    public void testStageEngine(String stage, String nextStage, String subject) throws Exception {
+        Order order = buildTestOrder();
+        order.setStage(stage);
+        Timer stageTimer = meterRegistry.find("order.stage.time").tag("stage", stage).timer();
+        long recorded = stageTimer.count();
 
-        adviceWith("stitching-stage-route", camelContext, new AdviceWithRouteBuilder() {
-            @Override
-            public void configure() throws Exception {
-                weaveByToUri("direct:quality-check-stage").replace().to("mock:quality");
-                weaveByToUri("direct:insert-to-kafka").replace().to("mock:kafka-stitching-stage");
-            }
+        //Send a msg to the synchronous route direct:advance-stage
+        Exchange result = producerTemplate.send("direct:advance-stage", exchange -> {
+            exchange.setProperty("order", order);
+            exchange.setProperty("tailor", order.getTailor());
         });
 
-        MockEndpoint mockKafka = camelContext.getEndpoint("mock:kafka-stitching-stage", MockEndpoint.class);
-        mockKafka.expectedMessageCount(1);
+        assertEquals(nextStage, order.getStage());
+        assertNotNull(order.getNextStageTime()); //stage-scheduler-route moves it on
+        assertFalse(order.isCompleted());
+
+        verify(orderRepository).updateStage(eq(order.getOrderId()), eq(stage), eq(nextStage), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(tailorRepository, never()).releaseTailor(anyLong());
 
-        MockEndpoint mockQuality = camelContext.getEndpoint("mock:quality", MockEndpoint.class);
-        mockQuality.expectedMessageCount(1);
+        org.example.model.Message message = result.getIn().getBody(org.example.model.Message.class);
+        assertEquals(subject, message.getSubject());
+        assertTrue(message.getMessageBody().contains(order.getOrderId()));
+        verify(notificationOutbox).add(message); //in outbox with the stage update
+
+        assertEquals(recorded + 1, stageTimer.count()); //time spent in the stage left
+        assertNotNull(meterRegistry.find("camel.route.policy").tag("routeId", "stage-engine-route").timer()); //route timer
+    }
+
+    @Test
+    public void testStageOutOfOrder() throws Exception {
+
+        //order is not in FABRIC_CUT any more (moved on already)
+        when(orderRepository.updateStage(any(), eq("FABRIC_CUT"), eq("STITCHING"), any(), any())).thenReturn(false);
 
         Order order = buildTestOrder();
+        order.setStage("FABRIC_CUT");
 
-        producerTemplate.send("direct:stitching-stage", exchange -> {
+        Exchange result = producerTemplate.send("direct:advance-stage", exchange -> {
             exchange.setProperty("order", order);
             exchange.setProperty("tailor", order.getTailor());
         });
 
-        mockKafka.assertIsSatisfied();
-        mockQuality.assertIsSatisfied();
+        assertTrue(result.isRouteStop()); //stage skipped
+        assertNull(result.getIn().getBody()); //no notification message built
+        assertEquals("FABRIC_CUT", order.getStage()); //unchanged
     }
 
     @Test
-    public void testQualityCheckStage() throws Exception {
-
-        adviceWith("quality-check-stage-route", camelContext, new AdviceWithRouteBuilder() {
-            @Override
-            public void configure() throws Exception {
-                weaveByToUri("direct:order-dispatched-stage").replace().to("mock:dispatched");
-                weaveByToUri("direct:insert-to-kafka").replace().to("mock:kafka-quality-check-stage");
-            }
-        });
-
-        MockEndpoint mockKafka = camelContext.getEndpoint("mock:kafka-quality-check-stage", MockEndpoint.class);
-        mockKafka.expectedMessageCount(1);
-
-        MockEndpoint mockDispatched = camelContext.getEndpoint("mock:dispatched", MockEndpoint.class);
-        mockDispatched.expectedMessageCount(1);
-
+    public void testOrderDispatchedStage() throws Exception {
         Order order = buildTestOrder();
+        order.setStage("QUALITY_CHECK");
 
-        producerTemplate.send("direct:quality-check-stage", exchange -> {
+        Exchange result = producerTemplate.send("direct:advance-stage", exchange -> {
             exchange.setProperty("order", order);
             exchange.setProperty("tailor", order.getTailor());
         });
 
-        mockKafka.assertIsSatisfied();
-        mockDispatched.assertIsSatisfied();
+        assertEquals("DISPATCHED", order.getStage());
+        assertTrue(order.isCompleted());
+        assertNull(order.getNextStageTime()); //no next stage
+
+        verify(orderRepository).completeOrder(eq(order.getOrderId()), eq("QUALITY_CHECK"), eq("DISPATCHED"), any(LocalDateTime.class));
+        verify(tailorRepository).releaseTailor(1L); //tailor free now
+
+        assertTrue(result.getIn().getBody(String.class).contains("Order Dispatched"));
     }
 
     @Test
-    public void testOrderDispatchedStage() throws Exception {
+    public void testStageScheduler() throws Exception {
 
-        adviceWith("order-dispatched-stage-route", camelContext, new AdviceWithRouteBuilder() {
+        adviceWith("stage-scheduler-route", camelContext, new AdviceWithRouteBuilder() {
             @Override
             public void configure() throws Exception {
-                weaveByToUri("direct:insert-to-kafka").replace().to("mock:kafka-order-dispatched-stage");
+                replaceFromWith("direct:stage-scheduler-test"); //replace from path(timer to direct)
             }
         });
 
-        MockEndpoint mockKafka = camelContext.getEndpoint("mock:kafka-order-dispatched-stage", MockEndpoint.class);
-        mockKafka.expectedMessageCount(1);
+        Order o1 = buildTestOrder();
+        o1.setStage("CONFIRM");
+        o1.setTraceParent("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01"); //placeorder trace
 
-        Order order = buildTestOrder();
+        Order o2 = buildTestOrder();
+        o2.setStage("QUALITY_CHECK");
 
-        producerTemplate.send("direct:order-dispatched-stage", exchange -> {
-            exchange.setProperty("order", order);
-            exchange.setProperty("tailor", order.getTailor());
-        });
+        when(orderRepository.getDueOrders(any(LocalDateTime.class), anyInt())).thenReturn(List.of(o1, o2));
 
-        mockKafka.assertIsSatisfied();//verify expectedMessageCount(1)
+        producerTemplate.send("direct:stage-scheduler-test", ex->{});
+
+        //both due orders went through stage-engine-route
+        assertEquals("FABRIC_CUT", o1.getStage());
+        assertEquals("DISPATCHED", o2.getStage());
+        verify(orderRepository).updateStage(eq(o1.getOrderId()), eq("CONFIRM"), eq("FABRIC_CUT"), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(orderRepository).completeOrder(eq(o2.getOrderId()), eq("QUALITY_CHECK"), eq("DISPATCHED"), any(LocalDateTime.class));
     }
 
     @Test
@@ -361,18 +446,9 @@ public class MainRouteTest {
         message.setTo("test@gmail.com");
         message.setMessageBody("Test Body");
 
-        adviceWith("insert-to-kafka-route", camelContext, new AdviceWithRouteBuilder() {
-            @Override
-            public void configure() throws Exception {
-                weaveByToUri("kafka:mail-topic*").replace().to("mock:kafka-test");
-            }
-        });
-
-        String jsonString=producerTemplate.requestBody("direct:insert-to-kafka", message,String.class);
+        producerTemplate.sendBody("direct:insert-to-kafka", message);
 
-        assertNotNull(jsonString);
-
-        assertEquals("{\"subject\":\"Kafka Test\",\"messageBody\":\"Test Body\",\"to\":\"test@gmail.com\"}",jsonString);
+        verify(notificationOutbox).add(message); //outbox-relay-route produces it to kafka
     }
 
     //testing for consuming message from kafka
@@ -383,13 +459,15 @@ public class MainRouteTest {
             @Override
             public void configure() throws Exception {
                 replaceFromWith("direct:consume-from-kafka-test");
-                weaveByToUri("direct:send-mail").replace().to("mock:mail-test");
+                weaveByToUri("direct:mail-digest").replace().to("mock:mail-test");
             }
         });
 
         String jsonString="{\"subject\":\"Kafka Test\",\"messageBody\":\"Test Body\",\"to\":\"test@gmail.com\"}";
 
-        producerTemplate.sendBody("direct:consume-from-kafka-test", jsonString);
+        KafkaManualCommit manualCommit = mock(KafkaManualCommit.class);
+        producerTemplate.sendBodyAndHeaders("direct:consume-from-kafka-test", jsonString, java.util.Map.of(
+                KafkaConstants.MANUAL_COMMIT, manualCommit, KafkaConstants.PARTITION, 0, KafkaConstants.OFFSET, 7L));
 
         MockEndpoint mockMail = camelContext.getEndpoint("mock:mail-test", MockEndpoint.class);
         mockMail.expectedMessageCount(1);
@@ -401,6 +479,8 @@ public class MainRouteTest {
         assertEquals("Kafka Test",ex.getProperty("subject",String.class));
         assertEquals("Test Body",ex.getIn().getBody(String.class));
         assertEquals("test@gmail.com",ex.getProperty("to",String.class));
+        assertEquals(new MailTopicOffsets.TopicRecord(0, 7L), ex.getProperty(MailTopicOffsets.RECORD)); //goes with the digest
+        verify(manualCommit, never()).commit(); //mail not sent yet- offset committed by mail-digest-route
     }
 
     @Test
@@ -420,25 +500,10 @@ public class MainRouteTest {
         owner.setFirstName("Owner");
         owner.setEmail("owner@gmail.com");
 
-        Tailor tailor=new Tailor();
-        tailor.setTailorId(1);
-        tailor.setTailorName("Test Tailor");
+        OrderSummaryDto o1=new OrderSummaryDto(UUID.randomUUID().toString(), "Test Tailor", "Cotton", "DISPATCHED", LocalDateTime.now().minusDays(1), null);
+        OrderSummaryDto o2=new OrderSummaryDto(UUID.randomUUID().toString(), "Test Tailor", "Silk", "DISPATCHED", LocalDateTime.now().minusDays(1), null);
 
-        Order o1=new Order();
-        o1.setOrderId(UUID.randomUUID().toString());
-        o1.setFabric("Cotton");
-        o1.setStage("DISPATCHED");
-        //o1.setStageInTime(LocalDateTime.now().minusDays(1));
-        o1.setTailor(tailor);
-
-        Order o2=new Order();
-        o2.setOrderId(UUID.randomUUID().toString());
-        o2.setFabric("Silk");
-        o2.setStage("DISPATCHED");
-        //o2.setStageInTime(LocalDateTime.now().minusDays(1));
-        o2.setTailor(tailor);
-
-        when(orderRepository.getCompletedOrder()).thenReturn(List.of(o1,o2));
+        when(orderRepository.getCompletedOrderPage(any(), any(), any(), anyInt())).thenReturn(List.of(o1,o2));
         when(personRepository.findAllOwners()).thenReturn(List.of(owner));
 
         camelContext.start();
@@ -465,31 +530,11 @@ public class MainRouteTest {
 
         });
 
-        Person manager=new Person();
-        manager.setUserId(1);
-        manager.setFirstName("Manager");
-        manager.setEmail("manager@gmail.com");
-
-        Tailor tailor=new Tailor();
-        tailor.setTailorId(1);
-        tailor.setTailorName("Test Tailor");
-        tailor.setManager(manager);
+        OrderSummaryDto o1=new OrderSummaryDto(UUID.randomUUID().toString(), "Test Tailor", "Cotton", "STITCHING", LocalDateTime.now().minusDays(2), "manager@gmail.com");
+        OrderSummaryDto o2=new OrderSummaryDto(UUID.randomUUID().toString(), "Test Tailor", "Silk", "STITCHING", LocalDateTime.now().minusDays(2), "manager@gmail.com");
+        OrderSummaryDto noManager=new OrderSummaryDto(UUID.randomUUID().toString(), "Other Tailor", "Silk", "STITCHING", LocalDateTime.now().minusDays(2), null);
 
-        Order o1=new Order();
-        o1.setOrderId(UUID.randomUUID().toString());
-        o1.setFabric("Cotton");
-        o1.setStage("STITCHING");
-        //o1.setStageInTime(LocalDateTime.now().minusDays(1));
-        o1.setTailor(tailor);
-
-        Order o2=new Order();
-        o2.setOrderId(UUID.randomUUID().toString());
-        o2.setFabric("Silk");
-        o2.setStage("STITCHING");
-        //o2.setStageInTime(LocalDateTime.now().minusDays(1));
-        o2.setTailor(tailor);
-
-        when(orderRepository.getAllDelayedOrder()).thenReturn(List.of(o1,o2));
+        when(orderRepository.getAllDelayedOrder()).thenReturn(List.of(o1,o2,noManager)); //no mail without manager
 
         MockEndpoint mockKafka = camelContext.getEndpoint("mock:kafka-update-manager-test", MockEndpoint.class);
         mockKafka.expectedMessageCount(2);
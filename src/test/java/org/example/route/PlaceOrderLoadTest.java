@@ -0,0 +1,144 @@
+package org.example.route;
+
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.spi.CamelEvent;
+import org.apache.camel.support.EventNotifierSupport;
+import org.apache.camel.support.service.ServiceHelper;
+import org.example.repository.EmbeddedPostgresResource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.example.repository.TestDatabase.count;
+import static org.junit.jupiter.api.Assertions.*;
+
+//open-model load: placeorder requests arrive at loadtest.rate per second whether or not earlier ones answered,
+//latency counted from the planned send time. Reports p50/p99 per route and orders completed (DISPATCHED) per second.
+//./mvnw test -Dtest=PlaceOrderLoadTest -Dloadtest=true -Dloadtest.rate=200 -Dloadtest.duration=60
+@Slf4j
+@QuarkusTest
+@TestProfile(LoadTestProfile.class)
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class PlaceOrderLoadTest {
+
+    private static final long DRAIN_TIMEOUT_MS = Long.getLong("loadtest.drain-timeout", 120_000);
+
+    @Inject
+    CamelContext camelContext;
+
+    @TestHTTPResource("/api/v1/placeorder")
+    URI placeOrderUri;
+
+    private final Map<String, Queue<Long>> routeLatencies = new ConcurrentHashMap<>(); //routeId -> exchange times(ms)
+
+    @Test
+    void testPlaceOrderLoad() throws Exception {
+        recordRouteLatencies();
+
+        HttpClient client = HttpClient.newHttpClient();
+        Queue<Long> placeOrderLatencies = new ConcurrentLinkedQueue<>();
+        Map<Integer, AtomicInteger> statusCounts = new ConcurrentHashMap<>();
+        List<CompletableFuture<?>> responses = new ArrayList<>(LoadTestProfile.ORDERS);
+
+        long interval = TimeUnit.SECONDS.toNanos(1) / LoadTestProfile.RATE;
+        long start = System.nanoTime();
+        for (int i = 0; i < LoadTestProfile.ORDERS; i++) {
+            long planned = start + i * interval;
+            LockSupport.parkNanos(planned - System.nanoTime()); //returns at once if we are behind
+            HttpRequest request = HttpRequest.newBuilder(placeOrderUri)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"personId\":" + (i + 1) + ",\"fabric\":\"Cotton\"}"))
+                    .build();
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, e) -> {
+                        placeOrderLatencies.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - planned));
+                        statusCounts.computeIfAbsent(response == null ? -1 : response.statusCode(), k -> new AtomicInteger()).incrementAndGet();
+                    }));
+        }
+        CompletableFuture.allOf(responses.toArray(new CompletableFuture[0])).exceptionally(e -> null).join();
+        long sent = System.nanoTime() - start;
+
+        int placed = statusCounts.getOrDefault(200, new AtomicInteger()).get();
+        long deadline = System.currentTimeMillis() + DRAIN_TIMEOUT_MS;
+        while ((count("select count(*) from Orders where isCompleted") < placed || count("select count(*) from OutboxMessage") > 0)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(200);
+        }
+        Thread.sleep(1000); //last digests (completion-timeout 500ms)
+
+        log.info("placeorder: {} requests in {} s ({} /s offered), status={}", LoadTestProfile.ORDERS,
+                TimeUnit.NANOSECONDS.toSeconds(sent), LoadTestProfile.RATE, statusCounts);
+        log.info(String.format("%-32s %8s %8s %8s", "route", "count", "p50 ms", "p99 ms"));
+        log.info(String.format("%-32s %8d %8d %8d", "POST /api/v1/placeorder", placeOrderLatencies.size(),
+                percentile(placeOrderLatencies, 0.50), percentile(placeOrderLatencies, 0.99)));
+        new TreeMap<>(routeLatencies).forEach((routeId, latencies) -> log.info(String.format("%-32s %8d %8d %8d",
+                routeId, latencies.size(), percentile(latencies, 0.50), percentile(latencies, 0.99))));
+
+        try (Connection connection = EmbeddedPostgresResource.dataSource().getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("select count(*),"
+                     + " percentile_cont(0.5) within group (order by extract(epoch from orderCompleteTime - orderAcceptTime)),"
+                     + " percentile_cont(0.99) within group (order by extract(epoch from orderCompleteTime - orderAcceptTime)),"
+                     + " extract(epoch from max(orderCompleteTime) - min(orderAcceptTime))"
+                     + " from Orders where isCompleted")) {
+            resultSet.next();
+            int completed = resultSet.getInt(1);
+            log.info(String.format("orders completed: %d of %d placed, %.1f orders/s, placed->dispatched p50 %.0f ms p99 %.0f ms",
+                    completed, placed, completed / resultSet.getDouble(4), resultSet.getDouble(2) * 1000, resultSet.getDouble(3) * 1000));
+            log.info("mails delivered: {}", LoadTestProfile.Smtp.greenMail.getReceivedMessages().length);
+
+            assertTrue(placed > 0, "no order placed");
+            assertEquals(placed, completed, "placed orders not completed within " + DRAIN_TIMEOUT_MS + " ms");
+        }
+    }
+
+    //time of every finished exchange by the route it started in
+    private void recordRouteLatencies() {
+        EventNotifierSupport notifier = new EventNotifierSupport() {
+            @Override
+            public void notify(CamelEvent event) {
+                Exchange exchange = ((CamelEvent.ExchangeCompletedEvent) event).getExchange();
+                if (exchange.getFromRouteId() != null) {
+                    routeLatencies.computeIfAbsent(exchange.getFromRouteId(), k -> new ConcurrentLinkedQueue<>())
+                            .add(exchange.getClock().elapsed());
+                }
+            }
+
+            @Override
+            public boolean isEnabled(CamelEvent event) {
+                return event instanceof CamelEvent.ExchangeCompletedEvent;
+            }
+        };
+        camelContext.getManagementStrategy().addEventNotifier(notifier);
+        camelContext.getCamelContextExtension().setEventNotificationApplicable(true); //no notifier at startup- exchange events are off
+        ServiceHelper.startService(notifier);
+    }
+
+    private static long percentile(Collection<Long> latencies, double percentile) {
+        if (latencies.isEmpty()) {
+            return 0;
+        }
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)];
+    }
+}
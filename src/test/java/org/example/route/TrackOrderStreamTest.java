@@ -0,0 +1,118 @@
+package org.example.route;
+
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.example.dto.OrderResponseDto;
+import org.example.model.Order;
+import org.example.model.OrderStage;
+import org.example.service.OrderStageHub;
+import org.example.service.OrderTrackingCache;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+class TrackOrderStreamTest {
+
+    @TestHTTPResource("/api/v1/trackorder/stream")
+    URI streamUri;
+
+    @Inject
+    OrderTrackingCache orderTrackingCache;
+
+    @Inject
+    OrderStageHub orderStageHub;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    private Order trackedOrder(OrderStage stage) {
+        Order order = new Order();
+        order.setOrderId(UUID.randomUUID().toString());
+        order.setFabric("Cotton");
+        order.setStage(stage.name());
+        order.setStageInTime(LocalDateTime.now());
+        orderTrackingCache.update(order); //first event comes from the cache, no db
+        return order;
+    }
+
+    private OrderResponseDto stage(Order order, OrderStage stage) {
+        order.setStage(stage.name());
+        return OrderTrackingCache.toOrderResponseDto(order);
+    }
+
+    private HttpResponse<Stream<String>> open(String orderId) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(streamUri + "?orderId=" + orderId))
+                .timeout(Duration.ofSeconds(10))
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofLines());
+    }
+
+    //stage of the next sse event, null when the stream ended
+    private String nextStage(Iterator<String> lines) {
+        while (lines.hasNext()) {
+            String line = lines.next();
+            if (line.startsWith("data: ")) {
+                return line.substring("data: ".length()).replaceAll(".*\"stage\":\"([A-Z_]+)\".*", "$1");
+            }
+        }
+        return null;
+    }
+
+    @Test
+    void testStageEventsInOrder() throws Exception {
+        Order order = trackedOrder(OrderStage.CONFIRM);
+        int subscribersBefore = orderStageHub.subscriberCount();
+
+        HttpResponse<Stream<String>> response = open(order.getOrderId());
+        assertEquals(200, response.statusCode());
+        assertEquals("text/event-stream", response.headers().firstValue("Content-Type").orElse(null));
+        Iterator<String> lines = response.body().iterator();
+
+        assertEquals("CONFIRM", nextStage(lines)); //subscribed before the first event is written
+        assertEquals(subscribersBefore + 1, orderStageHub.subscriberCount());
+
+        orderStageHub.publish(stage(order, OrderStage.STITCHING));
+        orderStageHub.publish(stage(order, OrderStage.FABRIC_CUT)); //older than the last one sent- dropped
+        orderStageHub.publish(stage(order, OrderStage.DISPATCHED));
+
+        List<String> stages = new ArrayList<>();
+        for (String stage; (stage = nextStage(lines)) != null; ) {
+            stages.add(stage);
+        }
+        assertEquals(List.of("STITCHING", "DISPATCHED"), stages); //stream ends with the last stage
+        assertEquals(subscribersBefore, orderStageHub.subscriberCount());
+    }
+
+    @Test
+    void testFinishedOrderUnsubscribes() throws Exception {
+        Order order = trackedOrder(OrderStage.DISPATCHED);
+        int subscribersBefore = orderStageHub.subscriberCount();
+
+        Iterator<String> lines = open(order.getOrderId()).body().iterator();
+
+        assertEquals("DISPATCHED", nextStage(lines));
+        assertNull(nextStage(lines)); //ended after the only event
+        assertEquals(subscribersBefore, orderStageHub.subscriberCount()); //no stage change will ever drop it
+    }
+
+    @Test
+    void testOrderIdRequired() throws Exception {
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(streamUri).build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(400, response.statusCode());
+        assertEquals("orderId is required", response.body());
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.service;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.support.DefaultExchange;
+import org.example.dto.OrderDto;
+import org.example.repository.EmbeddedPostgresProfile;
+import org.example.repository.TestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.example.repository.TestDatabase.count;
+import static org.example.repository.TestDatabase.execute;
+import static org.junit.jupiter.api.Assertions.*;
+
+//bulk placeorder on embedded postgres- a bad item is answered on its own, the rest of the batch is saved
+@QuarkusTest
+@TestProfile(EmbeddedPostgresProfile.class)
+class BulkPlaceOrderTest {
+
+    @Inject
+    OrderService orderService;
+
+    @Inject
+    TailorAvailabilityIndex tailorAvailabilityIndex;
+
+    @Inject
+    FabricCatalog fabricCatalog;
+
+    @Inject
+    CamelContext camelContext;
+
+    @BeforeEach
+    void setup() throws Exception {
+        execute(TestDatabase.CLEAR,
+                TestDatabase.persons("customer-", "@gmail.com", 3),
+                TestDatabase.fabrics("Cotton"),
+                TestDatabase.tailors(5),
+                TestDatabase.tailorsWithFabric(1),
+                //customer 3 has an order already
+                "update Tailor set orderId = 'existing' where tailorId = 5",
+                "insert into Orders (orderId, fabric, stage, isCompleted, tailor_tailorid, user_userId)"
+                        + " values ('existing', 'Cotton', 'STITCHING', false, 5, 3)");
+        fabricCatalog.refresh();
+        tailorAvailabilityIndex.reconcile();
+    }
+
+    private OrderDto orderDto(long personId) {
+        OrderDto orderDto = new OrderDto();
+        orderDto.setPersonId(personId);
+        orderDto.setFabric("Cotton");
+        return orderDto;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testDuplicatePersonsAnsweredPerItem() throws Exception {
+        Exchange exchange = new DefaultExchange(camelContext);
+        exchange.getIn().setBody(new OrderDto[]{orderDto(1), orderDto(1), orderDto(3), orderDto(2)});
+
+        orderService.validateOrders(exchange);
+
+        List<Map<String, Object>> results = exchange.getIn().getBody(List.class);
+        assertEquals("order placed successfully", results.get(0).get("status"));
+        assertEquals(409, results.get(1).get("code")); //same customer twice in the request
+        assertEquals(409, results.get(2).get("code")); //customer has an order already
+        assertEquals("order placed successfully", results.get(3).get("status"));
+
+        assertEquals(3, count("select count(*) from Orders"));
+        assertEquals(0, count("select count(*) from Orders where orderId <> 'existing' and nextStageTime is null")); //scheduler can recover them
+        assertEquals(2, exchange.getProperty("orders", List.class).size());
+        assertEquals(2, tailorAvailabilityIndex.freeTailorCount());
+    }
+
+    @Test
+    void testTooManyOrders() throws Exception {
+        OrderDto[] orderDtos = new OrderDto[101];
+        for (int i = 0; i < orderDtos.length; i++) {
+            orderDtos[i] = orderDto(1);
+        }
+        Exchange exchange = new DefaultExchange(camelContext);
+        exchange.getIn().setBody(orderDtos);
+
+        orderService.validateOrders(exchange);
+
+        assertEquals(413, exchange.getIn().getHeader(Exchange.HTTP_RESPONSE_CODE));
+        assertTrue(exchange.getProperty("orders", List.class).isEmpty());
+        assertEquals(1, count("select count(*) from Orders"));
+    }
+
+    @Test
+    void testNullOrderRejected() throws Exception {
+        Exchange exchange = new DefaultExchange(camelContext);
+        exchange.getIn().setBody(new OrderDto[]{orderDto(1), null});
+
+        orderService.validateOrders(exchange);
+
+        assertEquals(400, exchange.getIn().getHeader(Exchange.HTTP_RESPONSE_CODE));
+        assertTrue(exchange.getProperty("orders", List.class).isEmpty());
+        assertEquals(1, count("select count(*) from Orders")); //not even the valid item
+        assertEquals(4, tailorAvailabilityIndex.freeTailorCount());
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.service;
+
+import org.example.dto.OrderSummaryDto;
+import org.example.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+//report is read page by page, each page continues after the complete time and orderId of the last order before
+class DailyReportServiceTest {
+
+    @Mock
+    OrderRepository orderRepository;
+
+    DailyReportService dailyReportService;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        dailyReportService = new DailyReportService();
+        dailyReportService.orderRepository = orderRepository;
+        dailyReportService.pageSize = 2;
+    }
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 1);
+
+    private OrderSummaryDto order(String orderId) {
+        return new OrderSummaryDto(orderId, "Tailor " + orderId, "Cotton", "DISPATCHED", DAY.atTime(12, 0), null);
+    }
+
+    @Test
+    void testReportIsReadPageByPage() {
+        LocalDateTime nextDay = DAY.plusDays(1).atStartOfDay(); //half-open- up to midnight
+        when(orderRepository.getCompletedOrderPage(DAY.atStartOfDay(), "", nextDay, 2)).thenReturn(List.of(order("a"), order("b")));
+        when(orderRepository.getCompletedOrderPage(DAY.atTime(12, 0), "b", nextDay, 2)).thenReturn(List.of(order("c")));
+
+        String report = dailyReportService.completedOrderReport(DAY);
+
+        assertTrue(report.startsWith("Hello Sir,"));
+        assertTrue(report.contains("1. orderId = a\n  tailorName= Tailor a\n  fabric = Cotton"));
+        assertTrue(report.contains("3. orderId = c"));
+        verify(orderRepository, times(2)).getCompletedOrderPage(any(), any(), any(), eq(2)); //last page was short
+    }
+
+    @Test
+    void testNoCompletedOrder() {
+        when(orderRepository.getCompletedOrderPage(any(), any(), any(), eq(2))).thenReturn(List.of());
+
+        assertNull(dailyReportService.completedOrderReport(DAY));
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.model.Fabric;
+import org.example.repository.FabricRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class FabricCatalogTest {
+
+    @Mock
+    FabricRepository fabricRepository;
+
+    FabricCatalog fabricCatalog;
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        fabricCatalog = new FabricCatalog();
+        fabricCatalog.fabricRepository = fabricRepository;
+        fabricCatalog.meterRegistry = meterRegistry;
+        fabricCatalog.init();
+    }
+
+    private Fabric fabric(long fabricId, String fabricName) {
+        Fabric fabric = new Fabric();
+        fabric.setFabricId(fabricId);
+        fabric.setFabricName(fabricName);
+        return fabric;
+    }
+
+    @Test
+    void testLookupIgnoresCaseWithoutDb() {
+        when(fabricRepository.getAllFabrics()).thenReturn(List.of(fabric(1L, "Cotton"), fabric(2L, "Silk")));
+        fabricCatalog.refresh();
+
+        assertEquals(1L, fabricCatalog.getFabricId("COTTON"));
+        assertEquals(2L, fabricCatalog.getFabricId("silk"));
+        assertFalse(fabricCatalog.exists("Linen"));
+        assertFalse(fabricCatalog.exists(null));
+
+        verify(fabricRepository, times(1)).getAllFabrics(); //lookups never query
+        assertEquals(2, meterRegistry.counter("fabric.catalog.misses").count());
+        assertEquals(1, meterRegistry.counter("fabric.catalog.refreshes").count());
+    }
+
+    @Test
+    void testRefreshReplacesCatalog() {
+        when(fabricRepository.getAllFabrics())
+                .thenReturn(List.of(fabric(1L, "Cotton")))
+                .thenReturn(List.of(fabric(1L, "Cotton"), fabric(3L, "Linen"))); //fabric added in db
+        fabricCatalog.refresh();
+        assertFalse(fabricCatalog.exists("Linen"));
+
+        fabricCatalog.refresh();
+        assertEquals(3L, fabricCatalog.getFabricId("linen"));
+        assertEquals(2, meterRegistry.get("fabric.catalog.size").gauge().value());
+    }
+}
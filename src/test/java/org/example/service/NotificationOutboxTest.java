@@ -0,0 +1,159 @@
+package org.example.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import org.apache.camel.CamelContext;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.kafka.KafkaConstants;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.example.model.Message;
+import org.example.model.OutboxMessage;
+import org.example.repository.OutboxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class NotificationOutboxTest {
+
+    @Mock
+    OutboxRepository outboxRepository;
+
+    NotificationOutbox notificationOutbox;
+
+    CamelContext camelContext = new DefaultCamelContext();
+
+    volatile boolean brokerDown;
+
+    @BeforeEach
+    void setup() throws Exception {
+        MockitoAnnotations.openMocks(this);
+
+        camelContext.addRoutes(new RouteBuilder() {
+            @Override
+            public void configure() {
+                from("direct:produce-to-kafka") //stand-in for kafka:mail-topic
+                        .process(exchange -> {
+                            if (brokerDown) {
+                                throw new IllegalStateException("broker not available");
+                            }
+                        })
+                        .to("mock:kafka");
+            }
+        });
+        camelContext.start();
+
+        notificationOutbox = new NotificationOutbox();
+        notificationOutbox.outboxRepository = outboxRepository;
+        notificationOutbox.objectMapper = new ObjectMapper();
+        notificationOutbox.producerTemplate = camelContext.createProducerTemplate();
+        notificationOutbox.camelContext = camelContext;
+        notificationOutbox.openTelemetry = OpenTelemetry.propagating(ContextPropagators.create(W3CTraceContextPropagator.getInstance()));
+        notificationOutbox.batchSize = 100;
+    }
+
+    @AfterEach
+    void tearDown() {
+        camelContext.stop();
+    }
+
+    private OutboxMessage outboxMessage(long id, String to) {
+        OutboxMessage outboxMessage = new OutboxMessage();
+        outboxMessage.setId(id);
+        outboxMessage.setMessageKey(to);
+        outboxMessage.setPayload("{\"to\":\"" + to + "\"}");
+        return outboxMessage;
+    }
+
+    @Test
+    void testAddStoresJsonKeyedByRecipient() throws Exception {
+        Message message = new Message();
+        message.setSubject("Order Confirmed");
+        message.setMessageBody("Your order is confirmed");
+        message.setTo("customer@gmail.com");
+
+        notificationOutbox.add(message);
+
+        ArgumentCaptor<OutboxMessage> stored = ArgumentCaptor.forClass(OutboxMessage.class);
+        verify(outboxRepository).enqueue(stored.capture());
+        assertEquals("customer@gmail.com", stored.getValue().getMessageKey());
+        assertEquals("{\"subject\":\"Order Confirmed\",\"messageBody\":\"Your order is confirmed\",\"to\":\"customer@gmail.com\"}",
+                stored.getValue().getPayload());
+    }
+
+    @Test
+    void testTraceParentGoesWithRecord() throws Exception {
+        Span stageSpan = Span.wrap(SpanContext.create("4bf92f3577b34da6a3ce929d0e0e4736", "00f067aa0ba902b7",
+                TraceFlags.getSampled(), TraceState.getDefault()));
+        try (Scope scope = stageSpan.makeCurrent()) { //span of the stage move
+            notificationOutbox.add(new Message());
+        }
+
+        ArgumentCaptor<OutboxMessage> stored = ArgumentCaptor.forClass(OutboxMessage.class);
+        verify(outboxRepository).enqueue(stored.capture());
+        String traceParent = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+        assertEquals(traceParent, stored.getValue().getTraceParent());
+
+        OutboxMessage outboxMessage = outboxMessage(1L, "a@gmail.com");
+        outboxMessage.setTraceParent(traceParent);
+        when(outboxRepository.lockBatch(100)).thenReturn(List.of(outboxMessage));
+        MockEndpoint mockKafka = camelContext.getEndpoint("mock:kafka", MockEndpoint.class);
+        mockKafka.expectedMessageCount(1);
+
+        notificationOutbox.relay();
+
+        mockKafka.assertIsSatisfied();
+        org.apache.camel.Message record = (org.apache.camel.Message) mockKafka.getExchanges().get(0).getIn().getBody(List.class).get(0);
+        assertEquals(traceParent, record.getHeader("traceparent")); //kafka record header- consumer joins the trace
+    }
+
+    @Test
+    void testRelayProducesBatchAndDeletesIt() throws Exception {
+        when(outboxRepository.lockBatch(100)).thenReturn(List.of(outboxMessage(1L, "a@gmail.com"), outboxMessage(2L, "b@gmail.com")));
+        MockEndpoint mockKafka = camelContext.getEndpoint("mock:kafka", MockEndpoint.class);
+        mockKafka.expectedMessageCount(1); //one exchange for the batch
+
+        assertEquals(2, notificationOutbox.relay());
+
+        mockKafka.assertIsSatisfied();
+        List<?> records = mockKafka.getExchanges().get(0).getIn().getBody(List.class);
+        org.apache.camel.Message first = (org.apache.camel.Message) records.get(0);
+        assertEquals("a@gmail.com", first.getHeader(KafkaConstants.KEY));
+        verify(outboxRepository).deleteByIds(List.of(1L, 2L));
+    }
+
+    @Test
+    void testRelayKeepsBatchWhenBrokerFails() {
+        brokerDown = true;
+        when(outboxRepository.lockBatch(100)).thenReturn(List.of(outboxMessage(1L, "a@gmail.com")));
+
+        assertEquals(0, notificationOutbox.relay());
+
+        verify(outboxRepository, never()).deleteByIds(anyCollection()); //sent again next run
+    }
+
+    @Test
+    void testRelayEmptyOutbox() {
+        when(outboxRepository.lockBatch(100)).thenReturn(List.of());
+
+        assertEquals(0, notificationOutbox.relay());
+
+        verify(outboxRepository, never()).deleteByIds(anyCollection());
+    }
+}
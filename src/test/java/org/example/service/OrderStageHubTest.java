@@ -0,0 +1,76 @@
+package org.example.service;
+
+import org.example.dto.OrderResponseDto;
+import org.example.model.OrderStage;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderStageHubTest {
+
+    private static final int SUBSCRIBERS = 10_000;
+    private static final int ORDERS = 1_000; //10 subscribers per order
+
+    private final OrderStageHub orderStageHub = new OrderStageHub();
+
+    private OrderResponseDto stage(String orderId, OrderStage stage) {
+        OrderResponseDto orderResponseDto = new OrderResponseDto();
+        orderResponseDto.setOrderId(orderId);
+        orderResponseDto.setStage(stage.name());
+        return orderResponseDto;
+    }
+
+    //hub fan-out only- every stage reaches every subscriber of its order while stages are published concurrently
+    @Test
+    void testHubFanOutToTenThousandSubscribers() throws Exception {
+        AtomicInteger received = new AtomicInteger();
+
+        for (int i = 0; i < SUBSCRIBERS; i++) {
+            orderStageHub.subscribe("order-" + (i % ORDERS), orderResponseDto -> received.incrementAndGet());
+        }
+        assertEquals(SUBSCRIBERS, orderStageHub.subscriberCount());
+
+        ExecutorService stageWorkers = Executors.newFixedThreadPool(8); //like tailor-route consumers
+        List<Future<?>> published = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            String orderId = "order-" + i;
+            published.add(stageWorkers.submit(() -> {
+                for (OrderStage stage = OrderStage.CONFIRM; stage != null; stage = stage.next()) {
+                    orderStageHub.publish(stage(orderId, stage));
+                }
+            }));
+        }
+        for (Future<?> future : published) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        stageWorkers.shutdown();
+
+        int stages = OrderStage.values().length - 1; //every stage after PLACED
+        assertEquals(SUBSCRIBERS * stages, received.get());
+        assertEquals(0, orderStageHub.subscriberCount()); //last stage drops subscribers
+    }
+
+    @Test
+    void testUnsubscribe() {
+        AtomicInteger received = new AtomicInteger();
+        Runnable unsubscribe = orderStageHub.subscribe("order-1", orderResponseDto -> received.incrementAndGet());
+        orderStageHub.subscribe("order-1", orderResponseDto -> {
+            throw new IllegalStateException("client gone"); //must not stop the others
+        });
+
+        orderStageHub.publish(stage("order-1", OrderStage.CONFIRM));
+        unsubscribe.run();
+        orderStageHub.publish(stage("order-1", OrderStage.FABRIC_CUT));
+
+        assertEquals(1, received.get());
+        assertEquals(1, orderStageHub.subscriberCount());
+    }
+}
@@ -0,0 +1,160 @@
+package org.example.service;
+
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.support.DefaultExchange;
+import org.example.dto.OrderResponseDto;
+import org.example.model.Order;
+import org.example.model.Tailor;
+import org.example.repository.OrderRepository;
+import org.example.repository.TailorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@QuarkusTest
+class OrderTrackingCacheTest {
+
+    @Inject
+    OrderTrackingCache orderTrackingCache;
+
+    @Inject
+    @CacheName("order-tracking")
+    Cache cache;
+
+    @InjectMock
+    OrderRepository orderRepository;
+
+    @InjectMock
+    TailorRepository tailorRepository;
+
+    @Inject
+    OrderService orderService;
+
+    @Inject
+    CamelContext camelContext;
+
+    @BeforeEach
+    void setup() {
+        cache.invalidateAll().await().indefinitely();
+    }
+
+    private Order buildOrder(String stage) {
+        Order order = new Order();
+        order.setOrderId(UUID.randomUUID().toString());
+        order.setFabric("Cotton");
+        order.setStage(stage);
+        return order;
+    }
+
+    @Test
+    void testSecondReadFromCache() {
+        Order order = buildOrder("CONFIRM");
+        when(orderRepository.getOrderById(order.getOrderId())).thenReturn(order);
+
+        orderTrackingCache.get(order.getOrderId());
+        OrderResponseDto orderResponseDto = orderTrackingCache.get(order.getOrderId());
+
+        assertEquals("CONFIRM", orderResponseDto.getStage());
+        verify(orderRepository, times(1)).getOrderById(order.getOrderId()); //only the miss went to db
+    }
+
+    @Test
+    void testStageChangeUpdatesCache() {
+        Order order = buildOrder("CONFIRM");
+        when(orderRepository.getOrderById(order.getOrderId())).thenReturn(order);
+
+        orderTrackingCache.get(order.getOrderId());
+
+        order.setStage("FABRIC_CUT"); //stage engine moved the order
+        orderTrackingCache.update(order);
+
+        assertEquals("FABRIC_CUT", orderTrackingCache.get(order.getOrderId()).getStage());
+        verify(orderRepository, times(1)).getOrderById(order.getOrderId());
+    }
+
+    private Exchange trackOrder(String orderId, String ifNoneMatch) {
+        Exchange exchange = new DefaultExchange(camelContext);
+        exchange.getIn().setHeader("orderId", orderId);
+        exchange.getIn().setHeader("If-None-Match", ifNoneMatch);
+        orderService.getOrderById(exchange);
+        return exchange;
+    }
+
+    @Test
+    void testTrackOrderNotModified() {
+        Order order = buildOrder("CONFIRM");
+        order.setStageInTime(LocalDateTime.now());
+        when(orderRepository.getOrderById(order.getOrderId())).thenReturn(order);
+
+        Exchange first = trackOrder(order.getOrderId(), null);
+        String eTag = first.getIn().getHeader("ETag", String.class);
+        assertNotNull(eTag);
+        assertNotNull(first.getIn().getHeader("Last-Modified"));
+
+        Exchange second = trackOrder(order.getOrderId(), eTag); //same stage- nothing to download
+        assertEquals(304, second.getIn().getHeader(Exchange.HTTP_RESPONSE_CODE));
+        assertNull(second.getIn().getBody());
+        verify(orderRepository, times(1)).getOrderById(order.getOrderId()); //304 answered from memory
+
+        order.setStage("FABRIC_CUT");
+        order.setStageInTime(LocalDateTime.now().plusSeconds(1));
+        orderTrackingCache.update(order);
+
+        Exchange third = trackOrder(order.getOrderId(), eTag); //stage changed- full response
+        assertNull(third.getIn().getHeader(Exchange.HTTP_RESPONSE_CODE));
+        assertEquals("FABRIC_CUT", third.getIn().getBody(OrderResponseDto.class).getStage());
+        assertNotEquals(eTag, third.getIn().getHeader("ETag"));
+    }
+
+    @Test
+    void testTrackOrderWeakETagAndGmtDate() {
+        Order order = buildOrder("CONFIRM");
+        order.setStageInTime(LocalDateTime.of(2025, 3, 1, 10, 15, 30, 123_000_000));
+        when(orderRepository.getOrderById(order.getOrderId())).thenReturn(order);
+
+        Exchange first = trackOrder(order.getOrderId(), null);
+        long stageInMillis = order.getStageInTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        assertEquals("\"CONFIRM-" + stageInMillis + "\"", first.getIn().getHeader("ETag"));
+        assertTrue(first.getIn().getHeader("Last-Modified", String.class).endsWith(" GMT"));
+        assertEquals(order.getStageInTime().atZone(ZoneId.systemDefault()).toInstant().truncatedTo(ChronoUnit.SECONDS),
+                ZonedDateTime.parse(first.getIn().getHeader("Last-Modified", String.class), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant());
+
+        Exchange weak = trackOrder(order.getOrderId(), "W/" + first.getIn().getHeader("ETag")); //weakened by a proxy
+        assertEquals(304, weak.getIn().getHeader(Exchange.HTTP_RESPONSE_CODE));
+    }
+
+    @Test
+    void testCancelledOrderLeavesCache() {
+        Order order = buildOrder("PLACED");
+        Tailor tailor = new Tailor();
+        tailor.setTailorId(1L);
+        order.setTailor(tailor);
+        when(orderRepository.getOrderById(order.getOrderId())).thenReturn(order);
+
+        orderTrackingCache.get(order.getOrderId()); //tracked right after placement
+        assertNotNull(orderTrackingCache.getIfPresent(order.getOrderId()));
+
+        Exchange exchange = new DefaultExchange(camelContext); //seda:tailor was full
+        exchange.setProperty("order", order);
+        exchange.setProperty("tailor", tailor);
+        orderService.cancelPlacedOrder(exchange);
+
+        verify(orderRepository).deleteOrder(order.getOrderId());
+        assertNull(orderTrackingCache.getIfPresent(order.getOrderId())); //no stale PLACED answer for a deleted order
+    }
+}
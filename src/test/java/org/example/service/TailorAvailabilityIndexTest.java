@@ -0,0 +1,116 @@
+package org.example.service;
+
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.example.model.Fabric;
+import org.example.model.Tailor;
+import org.example.repository.TailorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TailorAvailabilityIndexTest {
+
+    @Mock
+    TailorRepository tailorRepository;
+
+    @Mock
+    TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+    TailorAvailabilityIndex tailorAvailabilityIndex;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+
+        tailorAvailabilityIndex = new TailorAvailabilityIndex();
+        tailorAvailabilityIndex.tailorRepository = tailorRepository;
+        tailorAvailabilityIndex.transactionSynchronizationRegistry = transactionSynchronizationRegistry;
+    }
+
+    private Tailor buildTailor(long tailorId, String... fabricNames) {
+        Tailor tailor = new Tailor();
+        tailor.setTailorId(tailorId);
+        tailor.setFabrics(Arrays.stream(fabricNames).map(fabricName -> {
+            Fabric fabric = new Fabric();
+            fabric.setFabricName(fabricName);
+            return fabric;
+        }).toList());
+        return tailor;
+    }
+
+    private Synchronization claimInTransaction(String fabric) {
+        when(transactionSynchronizationRegistry.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+        Long tailorId = tailorAvailabilityIndex.claim(fabric);
+        assertNotNull(tailorId);
+        tailorAvailabilityIndex.releaseOnRollback(tailorId);
+
+        ArgumentCaptor<Synchronization> synchronization = ArgumentCaptor.forClass(Synchronization.class);
+        verify(transactionSynchronizationRegistry).registerInterposedSynchronization(synchronization.capture());
+        return synchronization.getValue();
+    }
+
+    @Test
+    void testRollbackReleasesTailor() {
+        when(tailorRepository.getAllTailorWithFabrics()).thenReturn(List.of(buildTailor(1L, "Cotton")));
+        tailorAvailabilityIndex.reconcile();
+
+        Synchronization synchronization = claimInTransaction("cotton");
+        assertFalse(tailorAvailabilityIndex.hasFreeTailor());
+
+        synchronization.afterCompletion(Status.STATUS_ROLLEDBACK); //order not saved
+        assertEquals(1L, tailorAvailabilityIndex.claim("Cotton"));
+    }
+
+    @Test
+    void testCommitKeepsTailorClaimed() {
+        when(tailorRepository.getAllTailorWithFabrics()).thenReturn(List.of(buildTailor(1L, "Cotton")));
+        tailorAvailabilityIndex.reconcile();
+
+        claimInTransaction("cotton").afterCompletion(Status.STATUS_COMMITTED);
+
+        assertFalse(tailorAvailabilityIndex.hasFreeTailor());
+    }
+
+    @Test
+    void testReconcileDropsDeletedAndChangedTailors() {
+        when(tailorRepository.getAllTailorWithFabrics()).thenReturn(List.of(buildTailor(1L, "Cotton"), buildTailor(2L, "Silk")));
+        tailorAvailabilityIndex.reconcile();
+
+        //tailor 2 deleted, tailor 1 works with silk only now
+        when(tailorRepository.getAllTailorWithFabrics()).thenReturn(List.of(buildTailor(1L, "Silk")));
+        tailorAvailabilityIndex.reconcile();
+
+        assertEquals(1, tailorAvailabilityIndex.tailorCount());
+        assertEquals(1, tailorAvailabilityIndex.freeTailorCount());
+        assertNull(tailorAvailabilityIndex.claim("Cotton"));
+        assertEquals(1L, tailorAvailabilityIndex.claim("Silk"));
+        assertNull(tailorAvailabilityIndex.claim("Silk"));
+    }
+
+    @Test
+    void testReleaseDuringReconcileKept() {
+        Tailor busy = buildTailor(1L, "Cotton");
+        busy.setOrderId("order-1");
+        when(tailorRepository.getAllTailorWithFabrics()).thenReturn(List.of(busy));
+        tailorAvailabilityIndex.reconcile();
+        assertFalse(tailorAvailabilityIndex.hasFreeTailor());
+
+        when(tailorRepository.getAllTailorWithFabrics()).thenAnswer(invocation -> {
+            tailorAvailabilityIndex.release(1L); //order cancelled after the db was read
+            return List.of(busy);
+        });
+        tailorAvailabilityIndex.reconcile();
+
+        assertEquals(1L, tailorAvailabilityIndex.claim("Cotton")); //snapshot older than the release
+    }
+}
@@ -0,0 +1,172 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.support.DefaultExchange;
+import org.example.dto.OrderDto;
+import org.example.model.Order;
+import org.example.repository.EmbeddedPostgresProfile;
+import org.example.repository.TailorRepository;
+import org.example.repository.TestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.example.repository.TestDatabase.count;
+import static org.example.repository.TestDatabase.execute;
+import static org.junit.jupiter.api.Assertions.*;
+
+//hundreds of placeorder calls at the same time must never give one tailor to two orders-
+//real index, real transactions and the conditional "update Tailor ... where orderId IS NULL" on embedded postgres
+@QuarkusTest
+@TestProfile(EmbeddedPostgresProfile.class)
+class TailorClaimConcurrencyTest {
+
+    private static final int TAILORS = 50;
+    private static final int REQUESTS = 500;
+    private static final int THREADS = 64;
+
+    @Inject
+    OrderService orderService;
+
+    @Inject
+    TailorRepository tailorRepository;
+
+    @Inject
+    TailorAvailabilityIndex tailorAvailabilityIndex;
+
+    @Inject
+    FabricCatalog fabricCatalog;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Inject
+    CamelContext camelContext;
+
+    @Inject
+    ProducerTemplate producerTemplate;
+
+    @BeforeEach
+    void setup() throws Exception {
+        //one customer per request- user_userId is unique in Orders; every tailor works with cotton, even ones with silk too
+        execute(TestDatabase.CLEAR,
+                TestDatabase.persons("customer-", "@gmail.com", REQUESTS),
+                TestDatabase.fabrics("Cotton", "Silk"),
+                TestDatabase.tailors(TAILORS),
+                TestDatabase.tailorsWithFabric(1),
+                "insert into Tailor_Fabric (Tailor_tailorId, fabrics_fabricId) select tailorId, 2 from Tailor where tailorId % 2 = 0");
+
+        fabricCatalog.refresh();
+        tailorAvailabilityIndex.reconcile();
+    }
+
+    private double rejections() {
+        return meterRegistry.find("order.rejections").counters().stream().mapToDouble(Counter::count).sum();
+    }
+
+    @Test
+    void testNoDoubleAssignment() throws Exception {
+        double rejectedBefore = rejections();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Exchange>> futures = new ArrayList<>();
+
+        for (int i = 0; i < REQUESTS; i++) {
+            long personId = i + 1;
+            String fabric = i % 3 == 0 ? "silk" : "COTTON";
+            boolean reconcile = i % 50 == 0; //index reconciled with db while orders are placed- can see uncommitted claims as free
+            futures.add(executor.submit(() -> {
+                start.await();
+                if (reconcile) {
+                    tailorAvailabilityIndex.reconcile();
+                }
+                OrderDto orderDto = new OrderDto();
+                orderDto.setPersonId(personId);
+                orderDto.setFabric(fabric);
+
+                Exchange exchange = new DefaultExchange(camelContext);
+                exchange.getIn().setBody(orderDto);
+                orderService.validateOrder(exchange);
+                return exchange;
+            }));
+        }
+
+        start.countDown();
+
+        Map<Long, String> assigned = new HashMap<>(); //tailorId -> orderId
+        for (Future<Exchange> future : futures) {
+            Exchange exchange = future.get(60, TimeUnit.SECONDS);
+            Order order = exchange.getProperty("order", Order.class);
+            if (order == null) {
+                assertEquals(404, exchange.getIn().getHeader(Exchange.HTTP_RESPONSE_CODE));
+                continue;
+            }
+            long tailorId = order.getTailor().getTailorId();
+            assertNull(assigned.put(tailorId, order.getOrderId()), "tailor " + tailorId + " assigned twice");
+        }
+        executor.shutdown();
+
+        assertEquals(TAILORS, assigned.size()); //every tailor got exactly one order
+        assertEquals(TAILORS, count("select count(*) from Orders"));
+        assertEquals(TAILORS, count("select count(*) from Orders o join Tailor t on t.tailorId = o.tailor_tailorid and t.orderId = o.orderId"));
+        assertEquals(0, count("select count(*) from Tailor where orderId is null"));
+        assertEquals(REQUESTS - TAILORS, rejections() - rejectedBefore); //every 404 counted by reason
+    }
+
+    @Test
+    void testClaimTailorIsConditional() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> futures = new ArrayList<>();
+
+        for (int i = 0; i < THREADS; i++) {
+            String orderId = "order-" + i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                return tailorRepository.claimTailor(1L, orderId); //same free tailor for everybody
+            }));
+        }
+
+        start.countDown();
+
+        int claimed = 0;
+        for (Future<Boolean> future : futures) {
+            if (future.get(30, TimeUnit.SECONDS)) {
+                claimed++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(1, claimed); //only the first update finds orderId IS NULL
+        assertEquals(1, count("select count(*) from Tailor where tailorId = 1 and orderId like 'order-%'"));
+    }
+
+    @Test
+    void testPlacedOrderConfirmedByTailorRoute() throws Exception {
+        OrderDto orderDto = new OrderDto();
+        orderDto.setPersonId(1L);
+        orderDto.setFabric("Cotton");
+
+        Exchange exchange = producerTemplate.send("direct:validate-order", ex -> ex.getIn().setBody(orderDto));
+        String orderId = exchange.getProperty("order", Order.class).getOrderId();
+
+        //tailor-route logs the detached order and tailor, then confirms it- stage-scheduler-route does not tick here
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (count("select count(*) from Orders where orderId = '" + orderId + "' and stage = 'CONFIRM'") == 0) {
+            assertTrue(System.currentTimeMillis() < deadline, "order not confirmed by tailor-route");
+            Thread.sleep(50);
+        }
+    }
+}